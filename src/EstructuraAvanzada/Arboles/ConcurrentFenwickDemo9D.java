@@ -0,0 +1,133 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * n.º 9D — Fenwick Tree (BIT) concurrente, con modo "striped".
+ * Variante de SegmentFenwickDemo9.FenwickTree que admite add() desde muchos hilos
+ * sin un candado global:
+ *  - Cada celda del BIT es un AtomicLongArray → add usa getAndAdd (CAS por celda).
+ *  - Modo striped: 'stripes' BITs independientes; cada hilo escribe en su shard
+ *    (asignado round-robin la primera vez), así los hilos no pelean por las mismas
+ *    celdas (en especial las de índices potencia de 2, que cubren mucho rango).
+ *    Las lecturas suman todos los shards.
+ *
+ * Semántica: cada add es atómico; una lectura concurrente con escrituras ve un
+ * estado intermedio válido de cada celda (no es una instantánea global).
+ *
+ * Complejidades: add O(log n); prefixSum / rangeSum O(log n · stripes).
+ */
+public class ConcurrentFenwickDemo9D {
+
+    static class ConcurrentFenwickTree {
+        private final int n;
+        private final AtomicLongArray[] shards; // cada shard es un BIT 1-indexed
+        private final AtomicInteger nextStripe = new AtomicInteger();
+        private final ThreadLocal<Integer> myStripe;
+
+        public ConcurrentFenwickTree(int n) { this(n, 1); }
+
+        public ConcurrentFenwickTree(int n, int stripes) {
+            if (n < 0 || stripes <= 0) throw new IllegalArgumentException();
+            this.n = n;
+            this.shards = new AtomicLongArray[stripes];
+            for (int s = 0; s < stripes; s++) shards[s] = new AtomicLongArray(n + 1);
+            this.myStripe = ThreadLocal.withInitial(() -> Math.floorMod(nextStripe.getAndIncrement(), stripes));
+        }
+
+        public ConcurrentFenwickTree(int[] arr, int stripes) {
+            this(arr.length, stripes);
+            // build O(n) en el shard 0 (aún no publicado a otros hilos)
+            AtomicLongArray bit = shards[0];
+            for (int i = 1; i <= n; i++) {
+                bit.addAndGet(i, arr[i - 1]);
+                int j = i + (i & -i);
+                if (j <= n) bit.addAndGet(j, bit.get(i));
+            }
+        }
+
+        /** a[idx] += delta (0-indexed). Seguro entre hilos. */
+        public void add(int idx, long delta) {
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            AtomicLongArray bit = shards.length == 1 ? shards[0] : shards[myStripe.get()];
+            for (int i = idx + 1; i <= n; i += (i & -i)) bit.getAndAdd(i, delta);
+        }
+
+        /** prefix sum [0..idx] (0-indexed), sumando todos los shards. */
+        public long prefixSum(int idx) {
+            long res = 0L;
+            for (AtomicLongArray bit : shards) {
+                for (int i = idx + 1; i > 0; i -= (i & -i)) res += bit.get(i);
+            }
+            return res;
+        }
+
+        /** range sum [L..R] (0-indexed, inclusivo). */
+        public long rangeSum(int L, int R) {
+            if (L < 0 || R >= n || L > R) throw new IllegalArgumentException();
+            return prefixSum(R) - (L == 0 ? 0 : prefixSum(L - 1));
+        }
+
+        public int size() { return n; }
+        public int stripes() { return shards.length; }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) throws Exception {
+        int[] arr = {5, -3, 7, 2, 9, 1, 4};
+        ConcurrentFenwickTree ft = new ConcurrentFenwickTree(arr, 4);
+        System.out.println("sum(0, 3) = " + ft.rangeSum(0, 3)); // 11
+        System.out.println("sum(2, 6) = " + ft.rangeSum(2, 6)); // 23
+
+        // Histograma por cubetas actualizado desde varios hilos
+        int threads = 8, perThread = 100_000;
+        ConcurrentFenwickTree hist = new ConcurrentFenwickTree(64, threads);
+        runAdds(threads, perThread, (t, i) -> hist.add((t * 31 + i) & 63, 1));
+        System.out.println("total histograma = " + hist.rangeSum(0, 63) + " (esperado " + threads * perThread + ")");
+
+        // Escalado de add() con hilos: candado global vs. atómico vs. striped
+        int n = 1 << 16, ops = 2_000_000;
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        System.out.printf("%n[Benchmark n=%,d, %,d adds por ronda, %d núcleos]%n",
+                n, ops, Runtime.getRuntime().availableProcessors());
+        for (int t = 1; t <= maxThreads; t *= 2) {
+            int per = ops / t;
+            SegmentFenwickDemo9.FenwickTree plain = new SegmentFenwickDemo9.FenwickTree(n);
+            long locked = runAdds(t, per, (th, i) -> { synchronized (plain) { plain.add(idx(th, i, n), 1); } });
+            ConcurrentFenwickTree atomic = new ConcurrentFenwickTree(n, 1);
+            long cas = runAdds(t, per, (th, i) -> atomic.add(idx(th, i, n), 1));
+            ConcurrentFenwickTree striped = new ConcurrentFenwickTree(n, t);
+            long str = runAdds(t, per, (th, i) -> striped.add(idx(th, i, n), 1));
+            System.out.printf("hilos=%2d  candado: %5d ms | atómico: %5d ms | striped: %5d ms%n", t, locked, cas, str);
+        }
+    }
+
+    private static int idx(int thread, int i, int n) { return (int) ((i * 2654435761L + thread) % n); }
+
+    interface Op { void run(int thread, int i); }
+
+    /** Lanza 'threads' hilos que ejecutan 'per' operaciones cada uno; devuelve ms. */
+    private static long runAdds(int threads, int per, Op op) throws Exception {
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int th = t;
+            fs.add(exec.submit(() -> {
+                start.await();
+                for (int i = 0; i < per; i++) op.run(th, i);
+                return null;
+            }));
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : fs) f.get();
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        exec.shutdown();
+        return ms;
+    }
+}
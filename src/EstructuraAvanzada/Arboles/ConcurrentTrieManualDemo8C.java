@@ -0,0 +1,215 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * n.º 8C — Trie concurrente.
+ * Variante de TrieManualDemo8.Trie que se puede compartir entre hilos:
+ *  - Hijos en ConcurrentHashMap: lecturas sin bloqueo, creación de nodos con putIfAbsent (CAS).
+ *  - Fin de palabra con CAS (AtomicBoolean): dos hilos que insertan la misma palabra cuentan una sola vez.
+ *  - Contadores 'pass' y 'words' con LongAdder para no serializar los hilos en la raíz.
+ *  - bulkInsert: reparte las palabras por primer carácter entre las tareas de un ForkJoinPool.
+ *
+ * Semántica: las operaciones son seguras pero los contadores son eventualmente
+ * consistentes (countPrefixes puede ir un instante por detrás de contains mientras
+ * otro hilo inserta). El borrado es lógico: los nodos vacíos no se podan para que
+ * las lecturas nunca vean un camino a medio desenganchar.
+ */
+public class ConcurrentTrieManualDemo8C {
+
+    static class ConcurrentTrie {
+        private static final class Node {
+            final ConcurrentHashMap<Character, Node> next = new ConcurrentHashMap<>();
+            final AtomicBoolean isWord = new AtomicBoolean(); // marca fin de palabra (CAS)
+            final LongAdder pass = new LongAdder();           // palabras que pasan por este nodo
+        }
+
+        private static final int BULK_CHUNK = 4_096; // tamaño de tarea en bulkInsert
+
+        private final Node root = new Node();
+        private final LongAdder words = new LongAdder(); // número de palabras distintas
+
+        /** Inserta palabra; devuelve false si ya existía. Seguro entre hilos. */
+        public boolean insert(String word) {
+            Objects.requireNonNull(word, "word");
+            Node x = root;
+            for (int i = 0; i < word.length(); i++) {
+                char ch = word.charAt(i);
+                Node nxt = x.next.get(ch);
+                if (nxt == null) {
+                    Node created = new Node();
+                    nxt = x.next.putIfAbsent(ch, created); // si otro hilo ganó, usamos su nodo
+                    if (nxt == null) nxt = created;
+                }
+                x = nxt;
+            }
+            if (!x.isWord.compareAndSet(false, true)) return false;
+            // Solo el hilo que marcó la palabra actualiza los contadores
+            addPass(word, 1);
+            words.increment();
+            return true;
+        }
+
+        /** ¿Existe la palabra exacta? Lectura sin bloqueo. */
+        public boolean contains(String word) {
+            Node x = walk(word);
+            return x != null && x.isWord.get();
+        }
+
+        /** ¿Existe alguna palabra que comience con el prefijo? */
+        public boolean startsWith(String prefix) {
+            return countPrefixes(prefix) > 0; // los nodos de palabras borradas siguen ahí con pass 0
+        }
+
+        /** Elimina una palabra exacta si existe (borrado lógico). */
+        public boolean delete(String word) {
+            Node x = walk(word);
+            if (x == null || !x.isWord.compareAndSet(true, false)) return false;
+            addPass(word, -1);
+            words.decrement();
+            return true;
+        }
+
+        /** Número de palabras almacenadas. */
+        public int size() { return words.intValue(); }
+
+        /** Número de palabras que tienen el prefijo dado. */
+        public int countPrefixes(String prefix) {
+            Node x = walk(prefix);
+            return x == null ? 0 : x.pass.intValue();
+        }
+
+        /** Devuelve hasta 'limit' sugerencias (lexicográfico por carácter); vista débilmente consistente. */
+        public List<String> wordsWithPrefix(String prefix, int limit) {
+            List<String> out = new ArrayList<>();
+            Node start = walk(prefix);
+            if (start == null || limit <= 0) return out;
+            dfs(start, new StringBuilder(prefix), out, limit);
+            return out;
+        }
+
+        /**
+         * Carga masiva en paralelo: agrupa por primer carácter (cada grupo toca un
+         * subárbol distinto, sin contención entre tareas salvo en la raíz) y trocea
+         * los grupos grandes para repartir bien el trabajo en el pool común.
+         * Devuelve cuántas palabras eran nuevas.
+         */
+        public int bulkInsert(Collection<String> batch) {
+            return bulkInsert(batch, ForkJoinPool.commonPool());
+        }
+
+        public int bulkInsert(Collection<String> batch, ForkJoinPool pool) {
+            Objects.requireNonNull(batch, "batch");
+            Map<Character, List<String>> groups = new HashMap<>();
+            int empty = 0;
+            for (String w : batch) {
+                Objects.requireNonNull(w, "word");
+                if (w.isEmpty()) { empty += insert(w) ? 1 : 0; continue; }
+                groups.computeIfAbsent(w.charAt(0), k -> new ArrayList<>()).add(w);
+            }
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+            for (List<String> group : groups.values()) {
+                for (int from = 0; from < group.size(); from += BULK_CHUNK) {
+                    List<String> part = group.subList(from, Math.min(group.size(), from + BULK_CHUNK));
+                    tasks.add(pool.submit(() -> {
+                        int added = 0;
+                        for (String w : part) if (insert(w)) added++;
+                        return added;
+                    }));
+                }
+            }
+            int added = empty;
+            for (ForkJoinTask<Integer> t : tasks) added += t.join();
+            return added;
+        }
+
+        // ---- Internos ----
+        private Node walk(String s) {
+            Objects.requireNonNull(s, "string");
+            Node x = root;
+            for (int i = 0; i < s.length(); i++) {
+                x = x.next.get(s.charAt(i));
+                if (x == null) return null;
+            }
+            return x;
+        }
+
+        private void addPass(String word, int delta) {
+            Node x = root;
+            x.pass.add(delta);
+            for (int i = 0; i < word.length(); i++) {
+                x = x.next.get(word.charAt(i));
+                x.pass.add(delta);
+            }
+        }
+
+        private void dfs(Node node, StringBuilder path, List<String> out, int limit) {
+            if (out.size() >= limit) return;
+            if (node.isWord.get()) {
+                out.add(path.toString());
+                if (out.size() >= limit) return;
+            }
+            List<Character> ks = new ArrayList<>(node.next.keySet());
+            Collections.sort(ks);
+            for (char ch : ks) {
+                Node child = node.next.get(ch);
+                if (child.pass.sum() <= 0) continue; // subárbol sin palabras (borradas)
+                path.append(ch);
+                dfs(child, path, out, limit);
+                path.deleteCharAt(path.length() - 1);
+                if (out.size() >= limit) return;
+            }
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) throws Exception {
+        ConcurrentTrie trie = new ConcurrentTrie();
+
+        // Varios hilos insertando palabras solapadas a la vez
+        String[] base = {"hola", "holanda", "hondo", "honor", "hoja", "hotel", "bot", "bota", "botón"};
+        int threads = 8;
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            fs.add(exec.submit(() -> { for (String w : base) trie.insert(w); }));
+        }
+        for (Future<?> f : fs) f.get();
+        exec.shutdown();
+
+        System.out.println("size tras 8 hilos insertando lo mismo: " + trie.size()); // 9
+        System.out.println("countPrefixes('ho'): " + trie.countPrefixes("ho"));       // 6
+        System.out.println("contains('honor'): " + trie.contains("honor"));           // true
+        System.out.println("Autocomplete 'bo': " + trie.wordsWithPrefix("bo", 5));
+
+        System.out.println("\ndelete('hotel'): " + trie.delete("hotel"));    // true
+        System.out.println("startsWith('hot'): " + trie.startsWith("hot")); // false (borrado lógico)
+        System.out.println("countPrefixes('ho'): " + trie.countPrefixes("ho")); // 5
+
+        // Carga masiva: secuencial vs. bulkInsert en paralelo
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Random rnd = new Random(42);
+        List<String> dict = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int len = 4 + rnd.nextInt(8);
+            StringBuilder sb = new StringBuilder(len);
+            for (int j = 0; j < len; j++) sb.append((char) ('a' + rnd.nextInt(26)));
+            dict.add(sb.toString());
+        }
+        long t0 = System.nanoTime();
+        ConcurrentTrie seq = new ConcurrentTrie();
+        for (String w : dict) seq.insert(w);
+        long seqMs = (System.nanoTime() - t0) / 1_000_000;
+
+        t0 = System.nanoTime();
+        ConcurrentTrie par = new ConcurrentTrie();
+        int added = par.bulkInsert(dict);
+        long parMs = (System.nanoTime() - t0) / 1_000_000;
+
+        System.out.printf("%n[Carga %,d palabras] secuencial: %d ms | bulkInsert (%d hilos): %d ms | nuevas=%,d, size=%,d/%,d%n",
+                n, seqMs, ForkJoinPool.commonPool().getParallelism(), parMs, added, par.size(), seq.size());
+    }
+}
@@ -1,7 +1,32 @@
 package EstructuraAvanzada.Arboles;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
 
+/**
+ * n.º 10A — KD-Tree 2D.
+ * Funciones: insert, remove, move, nearest (1-NN), kNearest, range (rectángulo).
+ *
+ * Balanceo:
+ *  - KDTree2D.build(xs, ys): árbol perfectamente balanceado por medianas
+ *    (quickselect por nivel → O(n log n)), con los subárboles grandes en paralelo (ForkJoin).
+ *  - insert reconstruye automáticamente el subárbol más alto que quede desbalanceado
+ *    (estilo scapegoat: un hijo con más de ALPHA·size nodos), así insertar puntos
+ *    ordenados no degenera el árbol en una lista.
+ *  - remove marca el nodo como lápida (tombstone) en O(log n); las consultas lo saltan.
+ *    Cuando en un subárbol las lápidas superan TOMBSTONE_RATIO de sus nodos, ese
+ *    subárbol se reconstruye solo con los puntos vivos. move = remove + insert
+ *    (reaprovecha la lápida si el punto vuelve a una posición ya marcada).
+ *    Coste amortizado O(log n) por actualización, sin reconstruir todo el árbol.
+ *
+ * Consultas en lote: kNearestBatch / radiusBatch ordenan las consultas por curva de
+ * Morton (Z-order) para que consultas vecinas recorran los mismos nodos seguidas,
+ * las reparten en bloques entre los hilos del ForkJoinPool común y escriben los
+ * resultados en arreglos planos (sin un objeto por resultado).
+ */
 public class KDTree2DManualDemo10A {
 
     // ===== KD-Tree 2D =====
@@ -10,29 +35,210 @@ public class KDTree2DManualDemo10A {
             double x, y;
             Node left, right;
             int axis; // 0 = x, 1 = y
+            int size = 1; // nodos en el subárbol, lápidas incluidas (para detectar desbalanceo)
+            int live = 1; // nodos vivos (no borrados) en el subárbol
+            boolean deleted; // lápida: el punto ya no existe pero el nodo sigue guiando la búsqueda
             Node(double x, double y, int axis) { this.x = x; this.y = y; this.axis = axis; }
             @Override public String toString(){ return "(" + x + "," + y + ")[" + (axis==0?"x":"y") + "]"; }
         }
 
         private Node root;
         private int size;
+        private Node[] pathBuf = new Node[32]; // camino del último insert/remove (reutilizado)
 
         public int size(){ return size; }
         public boolean isEmpty(){ return size==0; }
 
-        public void insert(double x, double y){ root = insert(root, x, y, 0); }
-        private Node insert(Node n, double x, double y, int axis){
-            if(n==null){ size++; return new Node(x,y,axis); }
-            double key = (axis==0? x : y);
-            double cur = (axis==0? n.x : n.y);
-            if(key < cur) n.left = insert(n.left, x, y, axis^1);
-            else           n.right = insert(n.right, x, y, axis^1);
-            return n;
+        static final double ALPHA = 0.75;          // umbral de desbalanceo (peso de un hijo / tamaño)
+        static final double TOMBSTONE_RATIO = 0.5; // umbral de lápidas / nodos para reconstruir
+        private static final int PARALLEL_MIN = 1 << 13; // subárboles menores se construyen en el hilo actual
+
+        /**
+         * Construye un árbol perfectamente balanceado con los puntos (xs[i], ys[i]).
+         * Mediana por quickselect en cada nivel; subárboles grandes en paralelo.
+         */
+        public static KDTree2D build(double[] xs, double[] ys){
+            if(xs.length != ys.length) throw new IllegalArgumentException("xs/ys length mismatch");
+            KDTree2D t = new KDTree2D();
+            int n = xs.length;
+            if(n == 0) return t;
+            int[] idx = new int[n];
+            for(int i=0;i<n;i++) idx[i]=i;
+            t.root = ForkJoinPool.commonPool().invoke(new BuildTask(xs, ys, idx, 0, n, 0));
+            t.size = n;
+            return t;
+        }
+
+        /** Reconstruye todo el árbol balanceado (p. ej. tras muchas inserciones). */
+        public void rebuild(){ if(root!=null) root = rebuildSubtree(root); }
+
+        public void insert(double x, double y){
+            // Descenso iterativo guardando el camino para poder buscar el "chivo expiatorio"
+            Node[] path = pathBuf;
+            int depth = 0;
+            Node parent = null, n = root;
+            while(n != null){
+                if(depth == path.length) path = pathBuf = Arrays.copyOf(path, depth * 2);
+                path[depth++] = n;
+                if(n.deleted && n.x == x && n.y == y){
+                    // El punto vuelve a una lápida de su camino: revivirla, sin nodo nuevo
+                    n.deleted = false;
+                    for(int i=0;i<depth;i++) path[i].live++;
+                    size++;
+                    Arrays.fill(path, 0, depth, null);
+                    return;
+                }
+                parent = n;
+                double key = (n.axis==0? x : y);
+                double cur = (n.axis==0? n.x : n.y);
+                n = (key < cur) ? n.left : n.right;
+            }
+            for(int i=0;i<depth;i++){ path[i].size++; path[i].live++; }
+            size++;
+            if(parent == null){ root = new Node(x,y,0); return; }
+            Node leaf = new Node(x,y,parent.axis^1);
+            double key = (parent.axis==0? x : y);
+            if(key < (parent.axis==0? parent.x : parent.y)) parent.left = leaf; else parent.right = leaf;
+            // El nodo desbalanceado más alto del camino se reconstruye entero
+            rebuildFirst(path, depth, false);
+        }
+
+        /**
+         * Borra una aparición del punto (x, y) marcándola como lápida. Devuelve false si no existe.
+         * Por la invariante izquierda < clave <= derecha, el punto solo puede estar en un camino.
+         */
+        public boolean remove(double x, double y){
+            Node[] path = pathBuf;
+            int depth = 0;
+            Node n = root;
+            while(n != null){
+                if(depth == path.length) path = pathBuf = Arrays.copyOf(path, depth * 2);
+                path[depth++] = n;
+                if(!n.deleted && n.x == x && n.y == y) break;
+                double key = (n.axis==0? x : y);
+                double cur = (n.axis==0? n.x : n.y);
+                n = (key < cur) ? n.left : n.right;
+            }
+            if(n == null){ Arrays.fill(path, 0, depth, null); return false; }
+            n.deleted = true;
+            for(int i=0;i<depth;i++) path[i].live--;
+            size--;
+            // Subárbol más alto con demasiadas lápidas → reconstruir solo con los vivos
+            rebuildFirst(path, depth, true);
+            return true;
+        }
+
+        /** Mueve un punto: remove(old) + insert(new). Devuelve false (sin cambios) si old no existe. */
+        public boolean move(double oldX, double oldY, double newX, double newY){
+            if(!remove(oldX, oldY)) return false;
+            insert(newX, newY);
+            return true;
+        }
+
+        /** Reconstruye el nodo más alto del camino que esté desbalanceado o (si tombstones) lleno de lápidas. */
+        private void rebuildFirst(Node[] path, int depth, boolean tombstones){
+            for(int i=0;i<depth;i++){
+                Node p = path[i];
+                boolean bad = tombstones ? (p.size - p.live) > TOMBSTONE_RATIO * p.size : unbalanced(p);
+                if(bad){
+                    Node rebuilt = rebuildSubtree(p);
+                    if(i==0) root = rebuilt;
+                    else if(path[i-1].left == p) path[i-1].left = rebuilt;
+                    else path[i-1].right = rebuilt;
+                    // los ancestros pierden las lápidas descartadas
+                    int dropped = p.size - sizeOf(rebuilt);
+                    for(int j=0;j<i;j++) path[j].size -= dropped;
+                    break;
+                }
+            }
+            Arrays.fill(path, 0, depth, null); // no retener nodos
+        }
+
+        /** Altura (número de niveles); O(log n) si está balanceado. */
+        public int height(){ return height(root); }
+        private int height(Node n){ return n==null ? 0 : 1 + Math.max(height(n.left), height(n.right)); }
+
+        private static int sizeOf(Node n){ return n==null ? 0 : n.size; }
+        private static boolean unbalanced(Node n){
+            return Math.max(sizeOf(n.left), sizeOf(n.right)) > ALPHA * n.size;
+        }
+
+        /**
+         * Recolecta los puntos vivos del subárbol y lo reconstruye por medianas, conservando
+         * el eje de su raíz (las lápidas se descartan). Devuelve null si no queda ninguno.
+         */
+        private Node rebuildSubtree(Node n){
+            int m = n.live;
+            double[] xs = new double[m], ys = new double[m];
+            int[] idx = new int[m];
+            int k = 0;
+            ArrayDeque<Node> stack = new ArrayDeque<>();
+            stack.push(n);
+            while(!stack.isEmpty()){
+                Node c = stack.pop();
+                if(!c.deleted){ xs[k]=c.x; ys[k]=c.y; idx[k]=k; k++; }
+                if(c.left!=null) stack.push(c.left);
+                if(c.right!=null) stack.push(c.right);
+            }
+            return new BuildTask(xs, ys, idx, 0, m, n.axis).compute();
         }
 
+        /** Construye el subárbol de idx[lo..hi) con la mediana del eje como raíz. */
+        private static final class BuildTask extends RecursiveTask<Node> {
+            private static final long serialVersionUID = 1L;
+            final double[] xs, ys; final int[] idx; final int lo, hi, axis;
+            BuildTask(double[] xs,double[] ys,int[] idx,int lo,int hi,int axis){
+                this.xs=xs; this.ys=ys; this.idx=idx; this.lo=lo; this.hi=hi; this.axis=axis;
+            }
+            @Override protected Node compute(){
+                if(lo>=hi) return null;
+                double[] c = (axis==0? xs : ys);
+                int mid = (lo + hi) >>> 1;
+                select(c, idx, lo, hi-1, mid);
+                // Invariante del insert: izquierda < clave <= derecha. Con duplicados de la
+                // mediana, la raíz pasa a ser el primero de ellos.
+                double pivot = c[idx[mid]];
+                int eq = mid;
+                for(int i=lo;i<eq;){
+                    if(c[idx[i]] == pivot) swap(idx, i, --eq); else i++;
+                }
+                mid = eq;
+                Node n = new Node(xs[idx[mid]], ys[idx[mid]], axis);
+                n.size = n.live = hi - lo;
+                BuildTask left = new BuildTask(xs, ys, idx, lo, mid, axis^1);
+                BuildTask right = new BuildTask(xs, ys, idx, mid+1, hi, axis^1);
+                if(hi - lo >= PARALLEL_MIN){
+                    left.fork();
+                    n.right = right.compute();
+                    n.left = left.join();
+                }else{
+                    n.left = left.compute();
+                    n.right = right.compute();
+                }
+                return n;
+            }
+        }
+
+        /** Quickselect (Hoare) sobre idx[lo..hi] por la coordenada c: deja en k el k-ésimo menor. */
+        private static void select(double[] c, int[] idx, int lo, int hi, int k){
+            while(lo < hi){
+                double pivot = c[idx[(lo + hi) >>> 1]];
+                int i = lo, j = hi;
+                while(i <= j){
+                    while(c[idx[i]] < pivot) i++;
+                    while(c[idx[j]] > pivot) j--;
+                    if(i <= j){ swap(idx, i, j); i++; j--; }
+                }
+                if(k <= j) hi = j;
+                else if(k >= i) lo = i;
+                else return;
+            }
+        }
+        private static void swap(int[] a,int i,int j){ int t=a[i]; a[i]=a[j]; a[j]=t; }
+
         // Nearest Neighbor (1-NN)
         public double[] nearest(double x, double y){
-            if(root==null) return null;
+            if(size==0) return null;
             Best best = new Best();
             nn(root, x, y, best);
             return new double[]{best.bestX, best.bestY};
@@ -40,7 +246,7 @@ public class KDTree2DManualDemo10A {
 
         // k-Nearest Neighbors (kNN)
         public List<double[]> kNearest(double x, double y, int k){
-            if(k<=0 || root==null) return List.of();
+            if(k<=0 || size==0) return List.of();
             PriorityQueue<Best> pq = new PriorityQueue<>((a,b)->Double.compare(b.bestDist2, a.bestDist2)); // max-heap por distancia
             knn(root, x, y, k, pq);
             ArrayList<double[]> out = new ArrayList<>(pq.size());
@@ -59,6 +265,195 @@ public class KDTree2DManualDemo10A {
             return out;
         }
 
+        /* ---------- Consultas en lote ---------- */
+        private static final int BATCH_CHUNK = 1_024; // consultas por tarea paralela
+
+        /** Resultado de radiusBatch (y de QuadTree.queryRangeBatch) en formato CSR: los puntos de la consulta i están en [offsets[i], offsets[i+1]). */
+        static final class BatchResult {
+            final int[] offsets;   // longitud q + 1
+            final double[] xy;     // pares x, y intercalados
+            BatchResult(int[] offsets, double[] xy){ this.offsets=offsets; this.xy=xy; }
+            int count(int query){ return offsets[query+1] - offsets[query]; }
+        }
+
+        /**
+         * kNN para muchas consultas. Devuelve un arreglo plano de q·k·2 doubles: para la
+         * consulta i, sus vecinos (x, y) ordenados por distancia empiezan en i·k·2; si hay
+         * menos de k puntos el resto queda en NaN. Con k &lt;= 0 devuelve un arreglo vacío,
+         * igual que kNearest devuelve una lista vacía. No admite modificaciones concurrentes.
+         */
+        public double[] kNearestBatch(double[] qx, double[] qy, int k){
+            if(qx.length != qy.length) throw new IllegalArgumentException("qx/qy length mismatch");
+            if(k <= 0) return new double[0];
+            int q = qx.length;
+            int len;
+            try { len = Math.multiplyExact(Math.multiplyExact(q, k), 2); }
+            catch(ArithmeticException e){ throw new IllegalArgumentException("q * k * 2 exceeds the maximum array size (q=" + q + ", k=" + k + ")"); }
+            double[] out = new double[len];
+            Arrays.fill(out, Double.NaN);
+            int[] order = mortonOrder(qx, qy);
+            IntStream.range(0, (q + BATCH_CHUNK - 1) / BATCH_CHUNK).parallel().forEach(c -> {
+                // heap primitivo reutilizado por todas las consultas del bloque
+                double[] hx = new double[k], hy = new double[k], hd = new double[k];
+                int end = Math.min(q, (c + 1) * BATCH_CHUNK);
+                for(int j = c * BATCH_CHUNK; j < end; j++){
+                    int i = order[j];
+                    int m = knnInto(root, qx[i], qy[i], k, hx, hy, hd, 0);
+                    for(int last = m - 1; last >= 0; last--){ // extraer del max-heap: del más lejano al más cercano
+                        out[(i * k + last) * 2] = hx[0];
+                        out[(i * k + last) * 2 + 1] = hy[0];
+                        heapSwap(hx, hy, hd, 0, last);
+                        siftDown(hx, hy, hd, 0, last);
+                    }
+                }
+            });
+            return out;
+        }
+
+        /** Todos los puntos a distancia &lt;= r de cada consulta, en formato CSR. r debe ser &gt;= 0. */
+        public BatchResult radiusBatch(double[] qx, double[] qy, double r){
+            if(qx.length != qy.length) throw new IllegalArgumentException("qx/qy length mismatch");
+            if(!(r >= 0)) throw new IllegalArgumentException("r must be >= 0: " + r); // también rechaza NaN
+            int q = qx.length;
+            int chunks = (q + BATCH_CHUNK - 1) / BATCH_CHUNK;
+            int[] order = mortonOrder(qx, qy);
+            int[] counts = new int[q];
+            double[][] chunkBuf = new double[chunks][];
+            // 1) cada bloque acumula sus resultados en su propio buffer
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                double[][] buf = { new double[64] };
+                int used = 0;
+                int end = Math.min(q, (c + 1) * BATCH_CHUNK);
+                for(int j = c * BATCH_CHUNK; j < end; j++){
+                    int i = order[j];
+                    int before = used;
+                    used = radiusInto(root, qx[i], qy[i], r, r * r, buf, used);
+                    counts[i] = (used - before) / 2;
+                }
+                chunkBuf[c] = buf[0];
+            });
+            // 2) offsets por prefijo y 3) copia de cada bloque a su sitio
+            return assembleBatch(counts, chunkBuf, BATCH_CHUNK, order);
+        }
+
+        /**
+         * Une los buffers por bloque en un único resultado CSR (lo usa también
+         * QuadTree.queryRangeBatch). chunkBuf[c] guarda seguidos los pares x, y de las
+         * consultas order[c·chunk .. (c+1)·chunk) (order == null: en orden natural) y
+         * counts[i] es el número de puntos de la consulta i. El total se suma en long y
+         * se rechaza si no cabe en un arreglo.
+         */
+        static BatchResult assembleBatch(int[] counts, double[][] chunkBuf, int chunk, int[] order){
+            int q = counts.length;
+            int[] offsets = new int[q + 1];
+            long total = 0;
+            for(int i = 0; i < q; i++){
+                total += counts[i];
+                if(total * 2 > Integer.MAX_VALUE) throw new IllegalArgumentException("batch result exceeds the maximum array size (" + total + "+ points)");
+                offsets[i + 1] = (int) total;
+            }
+            double[] xy = new double[(int) total * 2];
+            IntStream.range(0, chunkBuf.length).parallel().forEach(c -> {
+                int from = c * chunk, to = Math.min(q, from + chunk);
+                if(order == null){ // bloque contiguo: una sola copia
+                    System.arraycopy(chunkBuf[c], 0, xy, offsets[from] * 2, (offsets[to] - offsets[from]) * 2);
+                    return;
+                }
+                int src = 0;
+                for(int j = from; j < to; j++){
+                    int i = order[j];
+                    System.arraycopy(chunkBuf[c], src, xy, offsets[i] * 2, counts[i] * 2);
+                    src += counts[i] * 2;
+                }
+            });
+            return new BatchResult(offsets, xy);
+        }
+
+        /** Índices de las consultas ordenados por código de Morton (16 bits por eje sobre su caja envolvente). */
+        private static int[] mortonOrder(double[] qx, double[] qy){
+            int q = qx.length;
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for(int i=0;i<q;i++){
+                minX = Math.min(minX, qx[i]); maxX = Math.max(maxX, qx[i]);
+                minY = Math.min(minY, qy[i]); maxY = Math.max(maxY, qy[i]);
+            }
+            double sx = maxX > minX ? 65535 / (maxX - minX) : 0, sy = maxY > minY ? 65535 / (maxY - minY) : 0;
+            long[] keys = new long[q];
+            for(int i=0;i<q;i++){
+                long code = interleave((int) ((qx[i] - minX) * sx)) | (interleave((int) ((qy[i] - minY) * sy)) << 1);
+                keys[i] = (code << 31) | i; // code ocupa 32 bits: con << 31 la clave nunca es negativa
+            }
+            Arrays.parallelSort(keys);
+            int[] order = new int[q];
+            for(int i=0;i<q;i++) order[i] = (int) (keys[i] & 0x7FFFFFFFL);
+            return order;
+        }
+
+        /** Separa los 16 bits bajos de v dejando un 0 entre cada par (bit i → bit 2i). */
+        private static long interleave(int v){
+            long x = v & 0xFFFFL;
+            x = (x | (x << 8)) & 0x00FF00FFL;
+            x = (x | (x << 4)) & 0x0F0F0F0FL;
+            x = (x | (x << 2)) & 0x33333333L;
+            x = (x | (x << 1)) & 0x55555555L;
+            return x;
+        }
+
+        /** kNN con max-heap primitivo (hx, hy, hd) de capacidad k; devuelve el nuevo tamaño. */
+        private static int knnInto(Node n, double qx, double qy, int k, double[] hx, double[] hy, double[] hd, int size){
+            if(n==null || n.live==0) return size;
+            if(!n.deleted){
+                double dist2 = d2(qx,qy,n.x,n.y);
+                if(size < k){
+                    int i = size++;
+                    hx[i]=n.x; hy[i]=n.y; hd[i]=dist2;
+                    while(i > 0 && hd[(i-1)>>>1] < hd[i]){ heapSwap(hx,hy,hd,i,(i-1)>>>1); i=(i-1)>>>1; }
+                }else if(dist2 < hd[0]){
+                    hx[0]=n.x; hy[0]=n.y; hd[0]=dist2;
+                    siftDown(hx,hy,hd,0,size);
+                }
+            }
+            double q = (n.axis==0? qx : qy);
+            double p = (n.axis==0? n.x : n.y);
+            Node first = (q < p) ? n.left : n.right;
+            Node second= (q < p) ? n.right: n.left;
+            size = knnInto(first, qx, qy, k, hx, hy, hd, size);
+            if(size < k || (q - p)*(q - p) <= hd[0]) size = knnInto(second, qx, qy, k, hx, hy, hd, size);
+            return size;
+        }
+
+        /** Añade a buf[0] (que crece si hace falta) los puntos a distancia² &lt;= r2; devuelve la nueva longitud usada. */
+        private static int radiusInto(Node n, double qx, double qy, double r, double r2, double[][] buf, int used){
+            if(n==null || n.live==0) return used;
+            if(!n.deleted && d2(qx,qy,n.x,n.y) <= r2){
+                if(used + 2 > buf[0].length) buf[0] = Arrays.copyOf(buf[0], buf[0].length * 2);
+                buf[0][used++] = n.x;
+                buf[0][used++] = n.y;
+            }
+            double q = (n.axis==0? qx : qy);
+            double p = (n.axis==0? n.x : n.y);
+            if(q - r <= p) used = radiusInto(n.left, qx, qy, r, r2, buf, used);
+            if(q + r >= p) used = radiusInto(n.right, qx, qy, r, r2, buf, used);
+            return used;
+        }
+
+        private static void siftDown(double[] hx, double[] hy, double[] hd, int i, int size){
+            while(true){
+                int l = 2*i + 1, r = l + 1, big = i;
+                if(l < size && hd[l] > hd[big]) big = l;
+                if(r < size && hd[r] > hd[big]) big = r;
+                if(big == i) return;
+                heapSwap(hx,hy,hd,i,big);
+                i = big;
+            }
+        }
+        private static void heapSwap(double[] hx, double[] hy, double[] hd, int i, int j){
+            double t=hx[i]; hx[i]=hx[j]; hx[j]=t;
+            t=hy[i]; hy[i]=hy[j]; hy[j]=t;
+            t=hd[i]; hd[i]=hd[j]; hd[j]=t;
+        }
+
         // ----- Internos -----
         private static final class Best {
             double bestX, bestY, bestDist2 = Double.POSITIVE_INFINITY;
@@ -70,9 +465,9 @@ public class KDTree2DManualDemo10A {
         }
 
         private void nn(Node n, double qx, double qy, Best best){
-            if(n==null) return;
+            if(n==null || n.live==0) return; // subárbol vacío o solo lápidas
             double dist2 = d2(qx,qy,n.x,n.y);
-            if(dist2 < best.bestDist2){ best.bestDist2 = dist2; best.bestX = n.x; best.bestY = n.y; }
+            if(!n.deleted && dist2 < best.bestDist2){ best.bestDist2 = dist2; best.bestX = n.x; best.bestY = n.y; }
             // decidir rama primaria según eje
             double q = (n.axis==0? qx : qy);
             double p = (n.axis==0? n.x : n.y);
@@ -85,9 +480,10 @@ public class KDTree2DManualDemo10A {
         }
 
         private void knn(Node n, double qx, double qy, int k, PriorityQueue<Best> pq){
-            if(n==null) return;
+            if(n==null || n.live==0) return;
             double dist2 = d2(qx,qy,n.x,n.y);
-            if(pq.size()<k) pq.offer(new Best(n.x,n.y,dist2));
+            if(n.deleted){ /* lápida: solo guía la búsqueda */ }
+            else if(pq.size()<k) pq.offer(new Best(n.x,n.y,dist2));
             else if(dist2 < pq.peek().bestDist2){ pq.poll(); pq.offer(new Best(n.x,n.y,dist2)); }
 
             double q = (n.axis==0? qx : qy);
@@ -102,8 +498,8 @@ public class KDTree2DManualDemo10A {
         }
 
         private void range(Node n, double xmin,double ymin,double xmax,double ymax, List<double[]> out){
-            if(n==null) return;
-            if(n.x>=xmin && n.x<=xmax && n.y>=ymin && n.y<=ymax) out.add(new double[]{n.x,n.y});
+            if(n==null || n.live==0) return;
+            if(!n.deleted && n.x>=xmin && n.x<=xmax && n.y>=ymin && n.y<=ymax) out.add(new double[]{n.x,n.y});
             // decidir por eje
             if(n.axis==0){ // comparar por x
                 if(xmin <= n.x) range(n.left, xmin,ymin,xmax,ymax,out);
@@ -117,7 +513,7 @@ public class KDTree2DManualDemo10A {
         public String toPretty(){ StringBuilder sb=new StringBuilder(); pretty(root,0,sb); return sb.toString(); }
         private void pretty(Node n,int d,StringBuilder sb){
             if(n==null) return;
-            sb.append("  ".repeat(d)).append("- ").append(n).append("\n");
+            sb.append("  ".repeat(d)).append("- ").append(n).append(n.deleted ? " †" : "").append("\n");
             pretty(n.left,d+1,sb); pretty(n.right,d+1,sb);
         }
     }
@@ -138,5 +534,96 @@ public class KDTree2DManualDemo10A {
 
         System.out.println("\nRange [x:3..7, y:2..5]:");
         for (double[] p : kd.range(3,2,7,5)) System.out.println(Arrays.toString(p));
+
+        // Puntos ordenados por x: sin rebalanceo el árbol sería una lista de altura n
+        int n = 100_000;
+        double[] xs = new double[n], ys = new double[n];
+        Random rnd = new Random(42);
+        for (int i = 0; i < n; i++) { xs[i] = i; ys[i] = rnd.nextDouble() * n; }
+
+        long t0 = System.nanoTime();
+        KDTree2D bulk = KDTree2D.build(xs, ys);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("\nbuild(" + n + " ordenados): altura=" + bulk.height() + " en " + buildMs + " ms");
+
+        t0 = System.nanoTime();
+        KDTree2D inc = new KDTree2D();
+        for (int i = 0; i < n; i++) inc.insert(xs[i], ys[i]);
+        long incMs = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("insert uno a uno (ordenados): altura=" + inc.height() + " en " + incMs + " ms"
+                + " (log2 n = " + (32 - Integer.numberOfLeadingZeros(n)) + ")");
+        System.out.println("NN de (5000.2, 777) -> " + Arrays.toString(inc.nearest(5000.2, 777))
+                + " / " + Arrays.toString(bulk.nearest(5000.2, 777)));
+
+        // Borrado y movimiento
+        System.out.println("\nremove(7,2): " + kd.remove(7, 2) + ", remove(7,2): " + kd.remove(7, 2)); // true, false
+        System.out.println("NN de " + Arrays.toString(q) + " sin (7,2) -> " + Arrays.toString(kd.nearest(q[0], q[1]))); // (6,3)
+        System.out.println("move (6,3)->(6.4,2.5): " + kd.move(6, 3, 6.4, 2.5));
+        System.out.println("NN de " + Arrays.toString(q) + " -> " + Arrays.toString(kd.nearest(q[0], q[1]))); // (6.4,2.5)
+        System.out.println("size = " + kd.size() + "\n" + kd.toPretty());
+
+        // Rastreador de vehículos: en cada tick se mueve una fracción de la flota
+        int vehicles = 50_000, ticks = 20;
+        for (double fraction : new double[]{0.05, 1.0}) {
+            double[] vx = new double[vehicles], vy = new double[vehicles];
+            for (int i = 0; i < vehicles; i++) { vx[i] = rnd.nextDouble() * 10_000; vy[i] = rnd.nextDouble() * 10_000; }
+            KDTree2D fleet = KDTree2D.build(vx, vy);
+            int moving = (int) (vehicles * fraction);
+            long moveNs = 0, rebuildNs = 0;
+            for (int t = 0; t < ticks; t++) {
+                int from = rnd.nextInt(vehicles);
+                t0 = System.nanoTime();
+                for (int j = 0; j < moving; j++) {
+                    int i = (from + j) % vehicles;
+                    double nx = vx[i] + rnd.nextGaussian() * 5, ny = vy[i] + rnd.nextGaussian() * 5;
+                    fleet.move(vx[i], vy[i], nx, ny);
+                    vx[i] = nx; vy[i] = ny;
+                }
+                moveNs += System.nanoTime() - t0;
+                t0 = System.nanoTime();
+                KDTree2D.build(vx, vy); // alternativa: reconstruir todo en cada tick
+                rebuildNs += System.nanoTime() - t0;
+            }
+            System.out.printf("%,d vehículos, %3.0f%% se mueven por tick: move %.1f ms/tick | build completo %.1f ms/tick | altura=%d%n",
+                    vehicles, fraction * 100, moveNs / 1e6 / ticks, rebuildNs / 1e6 / ticks, fleet.height());
+        }
+
+        // Lotes: kNN y radio para muchas consultas a la vez
+        double[] bqx = {6.5, 2.0, 9.0}, bqy = {2.4, 3.0, 9.0};
+        double[] flat = kd.kNearestBatch(bqx, bqy, 2);
+        System.out.println("\nkNearestBatch (k=2) plano: " + Arrays.toString(flat));
+        KDTree2D.BatchResult rb = kd.radiusBatch(bqx, bqy, 2.0);
+        for (int i = 0; i < bqx.length; i++) System.out.println("radio 2 de (" + bqx[i] + "," + bqy[i] + "): " + rb.count(i) + " puntos");
+
+        int bn = 200_000, bq = 200_000, k = 8;
+        double[] px = new double[bn], py = new double[bn], qxs = new double[bq], qys = new double[bq];
+        for (int i = 0; i < bn; i++) { px[i] = rnd.nextDouble(); py[i] = rnd.nextDouble(); }
+        for (int i = 0; i < bq; i++) { qxs[i] = rnd.nextDouble(); qys[i] = rnd.nextDouble(); }
+        KDTree2D big = KDTree2D.build(px, py);
+        for (int rep = 0; rep < 2; rep++) { // 1.ª vuelta: calentamiento JIT
+            t0 = System.nanoTime();
+            for (int i = 0; i < bq; i++) big.kNearest(qxs[i], qys[i], k);
+            if (rep == 1) System.out.printf("[%,d consultas, %,d puntos, %d núcleos] kNearest 1 a 1: %,.0f consultas/s%n",
+                    bq, bn, Runtime.getRuntime().availableProcessors(), bq / ((System.nanoTime() - t0) / 1e9));
+        }
+        // Escalado: los lotes corren dentro de un ForkJoinPool propio con p hilos (p = 1, 2, 4, ... núcleos)
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int p = 1; ; p = Math.min(p * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            long knnNs = 0, radNs = 0, results = 0;
+            for (int rep = 0; rep < 2; rep++) { // 1.ª vuelta: calentamiento JIT y arranque de los hilos
+                t0 = System.nanoTime();
+                pool.invoke(ForkJoinTask.adapt(() -> big.kNearestBatch(qxs, qys, k)));
+                knnNs = System.nanoTime() - t0;
+                t0 = System.nanoTime();
+                KDTree2D.BatchResult res = pool.invoke(ForkJoinTask.adapt(() -> big.radiusBatch(qxs, qys, 0.003)));
+                radNs = System.nanoTime() - t0;
+                results = res.offsets[bq];
+            }
+            pool.shutdown();
+            System.out.printf("p=%2d  kNearestBatch: %,11.0f consultas/s | radiusBatch: %,11.0f consultas/s (%,d resultados)%n",
+                    p, bq / (knnNs / 1e9), bq / (radNs / 1e9), results);
+            if (p == cores) break;
+        }
     }
 }
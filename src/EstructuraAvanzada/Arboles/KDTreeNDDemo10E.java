@@ -0,0 +1,299 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * n.º 10E — KD-Tree de k dimensiones con modo aproximado (ANN).
+ * Generaliza KDTree2DManualDemo10A.KDTree2D (fijo en x/y y axis^1) a vectores de
+ * 'dim' dimensiones (p. ej. embeddings de 8–64 dimensiones):
+ *  - Almacenamiento plano: data[i·dim + d], en el orden del árbol implícito
+ *    (raíz de [lo, hi) en mid; hojas de hasta LEAF puntos se recorren linealmente).
+ *  - Eje de corte = dimensión de mayor dispersión (max - min) en cada subárbol.
+ *  - Búsqueda best-bin-first: las ramas pendientes van a un min-heap por cota inferior
+ *    de distancia y se exploran de la más prometedora a la menos.
+ *  - Modo aproximado: (1+ε) poda toda rama cuya cota·(1+ε)² supere el k-ésimo actual,
+ *    y maxLeaves limita cuántas hojas se visitan. Con ε = 0 y sin límite es exacto.
+ *
+ * Complejidades: build O(n·dim·log n); kNN exacto se degrada hacia O(n) al crecer dim,
+ * el aproximado queda acotado por maxLeaves·LEAF evaluaciones de distancia.
+ */
+public class KDTreeNDDemo10E {
+
+    static final class KDTreeND {
+        static final int LEAF = 16; // puntos por hoja
+
+        private final int dim, n;
+        private final double[] data;  // n × dim, reordenado
+        private final int[] ids;      // índice original de cada fila
+        private final byte[] split;   // dimensión de corte del nodo en 'mid' (solo nodos internos)
+
+        public KDTreeND(double[] points, int dim) {
+            if (dim <= 0 || dim > Byte.MAX_VALUE || points.length % dim != 0) throw new IllegalArgumentException("bad dim");
+            this.dim = dim;
+            this.n = points.length / dim;
+            this.data = points.clone();
+            this.ids = new int[n];
+            for (int i = 0; i < n; i++) ids[i] = i;
+            this.split = new byte[n];
+            build(0, n);
+        }
+
+        public int size() { return n; }
+        public int dim() { return dim; }
+
+        /** kNN exacto. outIdx/outDist reciben índices originales y distancias² ascendentes. */
+        public int kNearest(double[] q, int k, int[] outIdx, double[] outDist) {
+            return kNearestApprox(q, k, 0.0, Integer.MAX_VALUE, outIdx, outDist);
+        }
+
+        /**
+         * kNN aproximado: cada resultado está a lo sumo (1+eps) veces más lejos que el
+         * verdadero k-ésimo vecino si maxLeaves no corta antes; maxLeaves acota el trabajo.
+         */
+        public int kNearestApprox(double[] q, int k, double eps, int maxLeaves, int[] outIdx, double[] outDist) {
+            if (q.length != dim) throw new IllegalArgumentException("query dim");
+            if (k > outIdx.length || k > outDist.length) throw new IllegalArgumentException("buffers smaller than k");
+            if (eps < 0 || maxLeaves <= 0) throw new IllegalArgumentException();
+            if (k <= 0 || n == 0) return 0;
+            double shrink = 1.0 / ((1 + eps) * (1 + eps)); // poda: bound > worst / (1+eps)²
+            BranchHeap pending = new BranchHeap();
+            pending.push(0.0, 0, n);
+            int size = 0, leaves = 0;
+            while (!pending.isEmpty() && leaves < maxLeaves) {
+                double bound = pending.topBound();
+                int lo = pending.topLo(), hi = pending.topHi();
+                pending.pop();
+                if (size == k && bound > outDist[0] * shrink) break; // el resto está aún más lejos
+                // descender por el lado cercano apilando el lejano
+                while (hi - lo > LEAF) {
+                    int mid = (lo + hi) >>> 1;
+                    size = offer(q, mid, k, outIdx, outDist, size);
+                    int d = split[mid];
+                    double diff = q[d] - data[mid * dim + d];
+                    double farBound = Math.max(bound, diff * diff);
+                    if (diff < 0) {
+                        if (size < k || farBound <= outDist[0] * shrink) pending.push(farBound, mid + 1, hi);
+                        hi = mid;
+                    } else {
+                        if (size < k || farBound <= outDist[0] * shrink) pending.push(farBound, lo, mid);
+                        lo = mid + 1;
+                    }
+                }
+                for (int i = lo; i < hi; i++) size = offer(q, i, k, outIdx, outDist, size);
+                leaves++;
+            }
+            for (int end = size - 1; end > 0; end--) { // heapsort → ascendente
+                swap(outIdx, outDist, 0, end);
+                siftDown(outIdx, outDist, 0, end);
+            }
+            for (int i = 0; i < size; i++) outIdx[i] = ids[outIdx[i]];
+            return size;
+        }
+
+        // ----- Construcción -----
+        private void build(int lo, int hi) {
+            if (hi - lo <= LEAF) return;
+            int d = widestDim(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(d, lo, hi - 1, mid);
+            split[mid] = (byte) d;
+            build(lo, mid);
+            build(mid + 1, hi);
+        }
+
+        private int widestDim(int lo, int hi) {
+            int best = 0;
+            double bestSpread = -1;
+            for (int d = 0; d < dim; d++) {
+                double mn = Double.POSITIVE_INFINITY, mx = Double.NEGATIVE_INFINITY;
+                for (int i = lo; i < hi; i++) {
+                    double v = data[i * dim + d];
+                    if (v < mn) mn = v;
+                    if (v > mx) mx = v;
+                }
+                if (mx - mn > bestSpread) { bestSpread = mx - mn; best = d; }
+            }
+            return best;
+        }
+
+        /** Quickselect (Hoare) de filas por la coordenada d. */
+        private void select(int d, int lo, int hi, int k) {
+            while (lo < hi) {
+                double pivot = data[((lo + hi) >>> 1) * dim + d];
+                int i = lo, j = hi;
+                while (i <= j) {
+                    while (data[i * dim + d] < pivot) i++;
+                    while (data[j * dim + d] > pivot) j--;
+                    if (i <= j) { swapRows(i, j); i++; j--; }
+                }
+                if (k <= j) hi = j;
+                else if (k >= i) lo = i;
+                else return;
+            }
+        }
+
+        private void swapRows(int i, int j) {
+            if (i == j) return;
+            int a = i * dim, b = j * dim;
+            for (int d = 0; d < dim; d++) { double t = data[a + d]; data[a + d] = data[b + d]; data[b + d] = t; }
+            int t = ids[i]; ids[i] = ids[j]; ids[j] = t;
+        }
+
+        // ----- Búsqueda -----
+        private double dist2(double[] q, int row) {
+            int base = row * dim;
+            double s = 0;
+            for (int d = 0; d < dim; d++) { double x = data[base + d] - q[d]; s += x * x; }
+            return s;
+        }
+
+        /** Ofrece la fila al max-heap (hIdx, hDist) de capacidad k; devuelve el nuevo tamaño. */
+        private int offer(double[] q, int row, int k, int[] hIdx, double[] hDist, int size) {
+            double dd = dist2(q, row);
+            if (size < k) {
+                int i = size++;
+                hIdx[i] = row; hDist[i] = dd;
+                while (i > 0 && hDist[(i - 1) >>> 1] < hDist[i]) { swap(hIdx, hDist, i, (i - 1) >>> 1); i = (i - 1) >>> 1; }
+            } else if (dd < hDist[0]) {
+                hIdx[0] = row; hDist[0] = dd;
+                siftDown(hIdx, hDist, 0, size);
+            }
+            return size;
+        }
+
+        private static void siftDown(int[] hIdx, double[] hDist, int i, int size) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, big = i;
+                if (l < size && hDist[l] > hDist[big]) big = l;
+                if (r < size && hDist[r] > hDist[big]) big = r;
+                if (big == i) return;
+                swap(hIdx, hDist, i, big);
+                i = big;
+            }
+        }
+
+        private static void swap(int[] a, double[] d, int i, int j) {
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+            double td = d[i]; d[i] = d[j]; d[j] = td;
+        }
+
+        /** Min-heap primitivo de ramas pendientes (cota inferior, [lo, hi)). */
+        private static final class BranchHeap {
+            double[] bound = new double[64];
+            int[] lo = new int[64], hi = new int[64];
+            int size;
+
+            boolean isEmpty() { return size == 0; }
+            double topBound() { return bound[0]; }
+            int topLo() { return lo[0]; }
+            int topHi() { return hi[0]; }
+
+            void push(double b, int l, int h) {
+                if (size == bound.length) {
+                    bound = Arrays.copyOf(bound, size * 2);
+                    lo = Arrays.copyOf(lo, size * 2);
+                    hi = Arrays.copyOf(hi, size * 2);
+                }
+                int i = size++;
+                while (i > 0 && bound[(i - 1) >>> 1] > b) { move(i, (i - 1) >>> 1); i = (i - 1) >>> 1; }
+                bound[i] = b; lo[i] = l; hi[i] = h;
+            }
+
+            void pop() {
+                int last = --size;
+                if (last == 0) return;
+                double b = bound[last];
+                int l = lo[last], h = hi[last];
+                int i = 0;
+                while (true) {
+                    int c = 2 * i + 1;
+                    if (c >= last) break;
+                    if (c + 1 < last && bound[c + 1] < bound[c]) c++;
+                    if (bound[c] >= b) break;
+                    move(i, c);
+                    i = c;
+                }
+                bound[i] = b; lo[i] = l; hi[i] = h;
+            }
+
+            private void move(int to, int from) { bound[to] = bound[from]; lo[to] = lo[from]; hi[to] = hi[from]; }
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        // 3D pequeño para ver que coincide con la búsqueda exacta
+        double[] pts = {2,3,1, 5,4,2, 9,6,0, 4,7,3, 8,1,5, 7,2,2, 6,3,1, 3,5,4};
+        KDTreeND small = new KDTreeND(pts, 3);
+        int[] idx = new int[3];
+        double[] dist = new double[3];
+        int m = small.kNearest(new double[]{6.5, 2.4, 1.5}, 3, idx, dist);
+        System.out.println("kNN 3D (k=3) de (6.5, 2.4, 1.5):");
+        for (int i = 0; i < m; i++) System.out.println("  #" + idx[i] + " d²=" + dist[i]);
+
+        // Curvas recall / latencia en embeddings sintéticos (dimensión intrínseca baja, como los reales)
+        int dim = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        benchmark(100_000, dim, 300, 10);
+    }
+
+    // ===== BENCHMARK exacto vs. aproximado =====
+    static void benchmark(int n, int dim, int queries, int k) {
+        Random rnd = new Random(42);
+        int latent = 6; // los vectores viven cerca de un subespacio de 6 dimensiones
+        double[][] basis = new double[latent][dim];
+        for (double[] b : basis) for (int d = 0; d < dim; d++) b[d] = rnd.nextGaussian();
+        double[] data = new double[n * dim];
+        double[][] qs = new double[queries][];
+        for (int i = 0; i < n + queries; i++) {
+            double[] v = new double[dim];
+            for (double[] b : basis) {
+                double w = rnd.nextGaussian();
+                for (int d = 0; d < dim; d++) v[d] += w * b[d];
+            }
+            for (int d = 0; d < dim; d++) v[d] += 0.05 * rnd.nextGaussian();
+            if (i < n) System.arraycopy(v, 0, data, i * dim, dim); else qs[i - n] = v;
+        }
+        long t0 = System.nanoTime();
+        KDTreeND tree = new KDTreeND(data, dim);
+        System.out.printf("%n[Benchmark n=%,d, dim=%d, k=%d] build: %d ms%n", n, dim, k, (System.nanoTime() - t0) / 1_000_000);
+
+        int[][] truth = new int[queries][k];
+        int[] oi = new int[k];
+        double[] od = new double[k];
+        for (int i = 0; i < queries; i++) tree.kNearest(qs[i], k, truth[i], od); // también calienta el JIT
+        t0 = System.nanoTime();
+        for (int i = 0; i < queries; i++) tree.kNearest(qs[i], k, oi, od);
+        double exactUs = (System.nanoTime() - t0) / 1e3 / queries;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < Math.min(queries, 50); i++) { // fuerza bruta como referencia
+            double best = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < n; p++) {
+                double s = 0;
+                for (int d = 0; d < dim; d++) { double x = data[p * dim + d] - qs[i][d]; s += x * x; }
+                if (s < best) best = s;
+            }
+            if (best < 0) System.out.println();
+        }
+        double bruteUs = (System.nanoTime() - t0) / 1e3 / Math.min(queries, 50);
+        System.out.printf("exacto: %.0f µs/consulta | fuerza bruta: %.0f µs/consulta%n", exactUs, bruteUs);
+
+        double[] epsList = {0.0, 0.5, 1.0, 2.0};
+        int[] leavesList = {Integer.MAX_VALUE, 256, 64, 16, 4};
+        System.out.println("   eps  maxLeaves   recall@" + k + "   µs/consulta");
+        for (double eps : epsList) {
+            for (int leaves : leavesList) {
+                int hits = 0;
+                t0 = System.nanoTime();
+                for (int i = 0; i < queries; i++) {
+                    int c = tree.kNearestApprox(qs[i], k, eps, leaves, oi, od);
+                    for (int a = 0; a < c; a++) for (int b = 0; b < k; b++) if (oi[a] == truth[i][b]) { hits++; break; }
+                }
+                double us = (System.nanoTime() - t0) / 1e3 / queries;
+                System.out.printf("  %4.1f  %9s   %7.3f   %8.1f%n", eps,
+                        leaves == Integer.MAX_VALUE ? "∞" : String.valueOf(leaves), hits / (double) (queries * k), us);
+            }
+        }
+    }
+}
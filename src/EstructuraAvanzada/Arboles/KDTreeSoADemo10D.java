@@ -0,0 +1,237 @@
+package EstructuraAvanzada.Arboles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * n.º 10D — KD-Tree 2D implícito en estructura de arreglos (SoA), sin asignaciones por consulta.
+ * Variante de solo lectura de KDTree2DManualDemo10A.KDTree2D pensada para mucho tráfico:
+ *  - Sin nodos: los puntos se reordenan en xs[], ys[] (y su índice original en ids[]) de modo
+ *    que el subárbol de [lo, hi) tiene la raíz en mid = (lo + hi) / 2, el hijo izquierdo en
+ *    [lo, mid) y el derecho en [mid + 1, hi). El eje alterna x/y por profundidad.
+ *  - Las consultas escriben en buffers del llamador (int[] outIdx, double[] outDist) y
+ *    devuelven cuántos resultados hay; kNN usa un max-heap primitivo dentro de esos buffers.
+ *    En régimen estable una consulta no asigna ni un byte.
+ *
+ * Complejidades: build O(n log n); nearest / kNearest O(log n) esperado; range O(√n + m).
+ */
+public class KDTreeSoADemo10D {
+
+    static final class KDTreeSoA {
+        private final double[] xs, ys; // coordenadas en orden del árbol implícito
+        private final int[] ids;       // índice original de cada posición
+        private final int n;
+
+        /** Construye a partir de copias de xs/ys; los resultados se devuelven como índices de entrada. */
+        public KDTreeSoA(double[] xs, double[] ys) {
+            if (xs.length != ys.length) throw new IllegalArgumentException("xs/ys length mismatch");
+            this.n = xs.length;
+            this.xs = xs.clone();
+            this.ys = ys.clone();
+            this.ids = new int[n];
+            for (int i = 0; i < n; i++) ids[i] = i;
+            build(0, n, 0);
+        }
+
+        public int size() { return n; }
+
+        /** Índice original del punto más cercano, o -1 si el árbol está vacío. */
+        public int nearest(double qx, double qy) {
+            if (n == 0) return -1;
+            return ids[nn(0, n, 0, qx, qy, (n - 1) >>> 1)];
+        }
+
+        /**
+         * Los k vecinos más cercanos (k = outIdx.length como máximo), ordenados por distancia.
+         * outIdx recibe índices originales y outDist la distancia al cuadrado. Devuelve cuántos hay.
+         */
+        public int kNearest(double qx, double qy, int k, int[] outIdx, double[] outDist) {
+            if (k > outIdx.length || k > outDist.length) throw new IllegalArgumentException("buffers smaller than k");
+            if (k <= 0 || n == 0) return 0;
+            int m = knn(0, n, 0, qx, qy, k, outIdx, outDist, 0);
+            // heapsort in situ: de max-heap a orden ascendente por distancia
+            for (int end = m - 1; end > 0; end--) {
+                swap(outIdx, outDist, 0, end);
+                siftDown(outIdx, outDist, 0, end);
+            }
+            for (int i = 0; i < m; i++) outIdx[i] = ids[outIdx[i]];
+            return m;
+        }
+
+        /**
+         * Puntos dentro de [xmin,xmax]×[ymin,ymax]. Escribe hasta outIdx.length índices
+         * originales y devuelve el total encontrado (si es mayor que el buffer, hubo truncado).
+         */
+        public int range(double xmin, double ymin, double xmax, double ymax, int[] outIdx) {
+            return range(0, n, 0, xmin, ymin, xmax, ymax, outIdx, 0);
+        }
+
+        // ----- Construcción -----
+        private void build(int lo, int hi, int axis) {
+            if (hi - lo <= 1) return;
+            int mid = (lo + hi) >>> 1;
+            select(axis == 0 ? xs : ys, lo, hi - 1, mid);
+            build(lo, mid, axis ^ 1);
+            build(mid + 1, hi, axis ^ 1);
+        }
+
+        /** Quickselect (Hoare): deja en k el k-ésimo menor de c[lo..hi], ≤ a su izquierda y ≥ a su derecha. */
+        private void select(double[] c, int lo, int hi, int k) {
+            while (lo < hi) {
+                double pivot = c[(lo + hi) >>> 1];
+                int i = lo, j = hi;
+                while (i <= j) {
+                    while (c[i] < pivot) i++;
+                    while (c[j] > pivot) j--;
+                    if (i <= j) { swapPoint(i, j); i++; j--; }
+                }
+                if (k <= j) hi = j;
+                else if (k >= i) lo = i;
+                else return;
+            }
+        }
+
+        private void swapPoint(int i, int j) {
+            double tx = xs[i]; xs[i] = xs[j]; xs[j] = tx;
+            double ty = ys[i]; ys[i] = ys[j]; ys[j] = ty;
+            int ti = ids[i]; ids[i] = ids[j]; ids[j] = ti;
+        }
+
+        // ----- Consultas (recursivas, sin objetos auxiliares) -----
+        private double d2(int i, double qx, double qy) {
+            double dx = xs[i] - qx, dy = ys[i] - qy;
+            return dx * dx + dy * dy;
+        }
+
+        /** Devuelve la posición del mejor punto encontrado (best = mejor posición hasta ahora). */
+        private int nn(int lo, int hi, int axis, double qx, double qy, int best) {
+            if (lo >= hi) return best;
+            int mid = (lo + hi) >>> 1;
+            if (d2(mid, qx, qy) < d2(best, qx, qy)) best = mid;
+            double diff = (axis == 0 ? qx - xs[mid] : qy - ys[mid]);
+            if (diff < 0) {
+                best = nn(lo, mid, axis ^ 1, qx, qy, best);
+                if (diff * diff <= d2(best, qx, qy)) best = nn(mid + 1, hi, axis ^ 1, qx, qy, best);
+            } else {
+                best = nn(mid + 1, hi, axis ^ 1, qx, qy, best);
+                if (diff * diff <= d2(best, qx, qy)) best = nn(lo, mid, axis ^ 1, qx, qy, best);
+            }
+            return best;
+        }
+
+        /** kNN con max-heap de tamaño 'size' en (hIdx, hDist); devuelve el nuevo tamaño. */
+        private int knn(int lo, int hi, int axis, double qx, double qy, int k,
+                        int[] hIdx, double[] hDist, int size) {
+            if (lo >= hi) return size;
+            int mid = (lo + hi) >>> 1;
+            double d = d2(mid, qx, qy);
+            if (size < k) {
+                // insertar al final y subir
+                int i = size++;
+                hIdx[i] = mid; hDist[i] = d;
+                while (i > 0 && hDist[(i - 1) >>> 1] < hDist[i]) { swap(hIdx, hDist, i, (i - 1) >>> 1); i = (i - 1) >>> 1; }
+            } else if (d < hDist[0]) {
+                hIdx[0] = mid; hDist[0] = d; // reemplaza al peor
+                siftDown(hIdx, hDist, 0, size);
+            }
+            double diff = (axis == 0 ? qx - xs[mid] : qy - ys[mid]);
+            int first = diff < 0 ? lo : mid + 1, firstHi = diff < 0 ? mid : hi;
+            int second = diff < 0 ? mid + 1 : lo, secondHi = diff < 0 ? hi : mid;
+            size = knn(first, firstHi, axis ^ 1, qx, qy, k, hIdx, hDist, size);
+            if (size < k || diff * diff <= hDist[0]) size = knn(second, secondHi, axis ^ 1, qx, qy, k, hIdx, hDist, size);
+            return size;
+        }
+
+        private int range(int lo, int hi, int axis, double xmin, double ymin, double xmax, double ymax,
+                          int[] out, int count) {
+            if (lo >= hi) return count;
+            int mid = (lo + hi) >>> 1;
+            double x = xs[mid], y = ys[mid];
+            if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+                if (count < out.length) out[count] = ids[mid];
+                count++;
+            }
+            double p = (axis == 0 ? x : y);
+            double min = (axis == 0 ? xmin : ymin), max = (axis == 0 ? xmax : ymax);
+            if (min <= p) count = range(lo, mid, axis ^ 1, xmin, ymin, xmax, ymax, out, count);
+            if (max >= p) count = range(mid + 1, hi, axis ^ 1, xmin, ymin, xmax, ymax, out, count);
+            return count;
+        }
+
+        // ----- Max-heap primitivo -----
+        private static void siftDown(int[] hIdx, double[] hDist, int i, int size) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, big = i;
+                if (l < size && hDist[l] > hDist[big]) big = l;
+                if (r < size && hDist[r] > hDist[big]) big = r;
+                if (big == i) return;
+                swap(hIdx, hDist, i, big);
+                i = big;
+            }
+        }
+
+        private static void swap(int[] a, double[] d, int i, int j) {
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+            double td = d[i]; d[i] = d[j]; d[j] = td;
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        double[] px = {2, 5, 9, 4, 8, 7, 6, 3};
+        double[] py = {3, 4, 6, 7, 1, 2, 3, 5};
+        KDTreeSoA kd = new KDTreeSoA(px, py);
+
+        int best = kd.nearest(6.5, 2.4);
+        System.out.println("NN de (6.5, 2.4) -> #" + best + " (" + px[best] + ", " + py[best] + ")"); // (7, 2)
+
+        int[] idx = new int[3];
+        double[] dist = new double[3];
+        int m = kd.kNearest(6.5, 2.4, 3, idx, dist);
+        System.out.println("kNN (k=3):");
+        for (int i = 0; i < m; i++) System.out.println("  #" + idx[i] + " (" + px[idx[i]] + ", " + py[idx[i]] + ") d²=" + dist[i]);
+
+        int[] hits = new int[16];
+        int c = kd.range(3, 2, 7, 5, hits);
+        System.out.print("Range [x:3..7, y:2..5]:");
+        for (int i = 0; i < c; i++) System.out.print(" (" + px[hits[i]] + ", " + py[hits[i]] + ")");
+        System.out.println();
+
+        // Bytes asignados en régimen estable (tras calentar el JIT)
+        int n = 1_000_000, queries = 200_000;
+        Random rnd = new Random(42);
+        double[] xs = new double[n], ys = new double[n], qx = new double[queries], qy = new double[queries];
+        for (int i = 0; i < n; i++) { xs[i] = rnd.nextDouble(); ys[i] = rnd.nextDouble(); }
+        for (int i = 0; i < queries; i++) { qx[i] = rnd.nextDouble(); qy[i] = rnd.nextDouble(); }
+        KDTreeSoA big = new KDTreeSoA(xs, ys);
+        int[] outIdx = new int[10];
+        double[] outDist = new double[10];
+        long sink = 0;
+        for (int rep = 0; rep < 3; rep++) {
+            long bytes0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += big.nearest(qx[i], qy[i]);
+                sink += big.kNearest(qx[i], qy[i], 10, outIdx, outDist);
+            }
+            long ns = System.nanoTime() - t0;
+            long bytes = allocatedBytes() - bytes0;
+            if (rep == 2) {
+                System.out.printf("%n[n=%,d] nearest + kNearest(10): %.2f µs/consulta, %,d bytes asignados en %,d consultas%n",
+                        n, ns / 1e3 / queries, bytes, queries);
+            }
+        }
+        if (sink == 42) System.out.println(); // evita que el JIT elimine el bucle
+        System.out.println("últimos kNN: " + Arrays.toString(outIdx));
+    }
+
+    /** Bytes asignados por el hilo actual (HotSpot); -1 si no está disponible. */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,281 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * n.º 10G — QuadTree lineal (códigos de Morton) sobre arreglos planos.
+ * Variante de solo lectura de QuadTreeDemo10B.QuadTree sin objetos por nodo:
+ *  - Cada punto se cuantiza a 31 bits por eje dentro del mundo [minX, minX+size]×[minY, minY+size]
+ *    y se intercalan los bits (x en los pares, y en los impares) → código Z de 62 bits.
+ *  - Los puntos se ordenan por código (radix sort LSD paralelo de 8 bits por pasada) y se
+ *    guardan en codes[], xs[], ys[], ids[]. Una celda del quadtree es implícita: todos sus
+ *    puntos forman el tramo contiguo [base, base + 4^nivel) de códigos.
+ *  - queryRange / queryCircle bajan por las celdas con búsquedas binarias: una celda disjunta
+ *    se descarta, una celda contenida entera se copia de golpe (o solo se cuenta) y las
+ *    celdas pequeñas (≤ LEAF puntos) se recorren secuencialmente.
+ *
+ * Complejidades: build O(n · 8 / hilos); consultas O(celdas frontera · log n + resultados).
+ */
+public class LinearQuadTreeDemo10G {
+
+    static final class LinearQuadTree {
+        private static final int BITS = 31;                // bits por eje
+        private static final int MAXQ = (1 << BITS) - 1;
+        private static final int LEAF = 32;                // tramo que ya no se subdivide
+        private static final int RECT = 0, CIRCLE = 1;     // forma de la consulta
+        private static final int DISJOINT = 0, PARTIAL = 1, INSIDE = 2;
+
+        private final double minX, minY, scale, inv;       // inv = tamaño de un cuanto
+        private final long[] codes;
+        private final double[] xs, ys;
+        private final int[] ids;
+        private final int n;
+
+        /** Construye sobre copias de xs/ys; todos los puntos deben caer dentro del mundo. */
+        public LinearQuadTree(double[] xs, double[] ys, double minX, double minY, double size){
+            if(xs.length != ys.length) throw new IllegalArgumentException("xs/ys length mismatch");
+            if(!(size > 0)) throw new IllegalArgumentException("size must be > 0");
+            this.n = xs.length;
+            this.minX = minX; this.minY = minY;
+            this.scale = (1L << BITS) / size;
+            this.inv = size / (1L << BITS);
+            long[] keys = new long[n];
+            int[] perm = new int[n];
+            IntStream.range(0, n).parallel().forEach(i -> {
+                if(!(xs[i] >= minX && xs[i] <= minX + size && ys[i] >= minY && ys[i] <= minY + size))
+                    throw new IllegalArgumentException("point outside world: (" + xs[i] + ", " + ys[i] + ")");
+                keys[i] = morton(quantize(xs[i] - minX), quantize(ys[i] - minY));
+                perm[i] = i;
+            });
+            radixSort(keys, perm);
+            this.codes = keys;
+            this.ids = perm;
+            this.xs = new double[n];
+            this.ys = new double[n];
+            IntStream.range(0, n).parallel().forEach(i -> { this.xs[i] = xs[perm[i]]; this.ys[i] = ys[perm[i]]; });
+        }
+
+        public int size(){ return n; }
+
+        /**
+         * Índices originales de los puntos en [xmin,xmax]×[ymin,ymax]. Escribe hasta out.length
+         * y devuelve el total encontrado (si es mayor que el buffer, hubo truncado).
+         */
+        public int queryRange(double xmin, double ymin, double xmax, double ymax, int[] out){
+            return collect(0, n, 0, 0, BITS, 0L, RECT, xmin, ymin, xmax, ymax, out, 0);
+        }
+
+        /** Cuántos puntos hay en el rectángulo; las celdas contenidas enteras cuentan en O(1). */
+        public int countRange(double xmin, double ymin, double xmax, double ymax){
+            return queryRange(xmin, ymin, xmax, ymax, EMPTY);
+        }
+
+        /** Índices originales de los puntos a distancia &lt;= r de (cx, cy); mismo contrato que queryRange. */
+        public int queryCircle(double cx, double cy, double r, int[] out){
+            return collect(0, n, 0, 0, BITS, 0L, CIRCLE, cx, cy, r, r * r, out, 0);
+        }
+
+        public int countCircle(double cx, double cy, double r){
+            return queryCircle(cx, cy, r, EMPTY);
+        }
+
+        private static final int[] EMPTY = new int[0];
+
+        // ----- Consultas -----
+        /**
+         * Celda con esquina cuantizada (ix0, iy0), lado 2^shift y códigos [base, base + 4^shift),
+         * cuyos puntos ocupan [lo, hi). Para RECT (a,b,c,d) = (xmin,ymin,xmax,ymax); para CIRCLE
+         * (a,b,c,d) = (cx,cy,r,r²).
+         */
+        private int collect(int lo, int hi, long ix0, long iy0, int shift, long base,
+                            int mode, double a, double b, double c, double d, int[] out, int count){
+            if(lo >= hi) return count;
+            // caja real de la celda, ampliada un cuanto para absorber el redondeo de quantize
+            double x0 = minX + (ix0 - 1) * inv, x1 = minX + (ix0 + (1L << shift) + 1) * inv;
+            double y0 = minY + (iy0 - 1) * inv, y1 = minY + (iy0 + (1L << shift) + 1) * inv;
+            int cls = classify(mode, a, b, c, d, x0, y0, x1, y1);
+            if(cls == DISJOINT) return count;
+            if(cls == INSIDE){
+                int take = Math.min(hi - lo, out.length - count);
+                if(take > 0) System.arraycopy(ids, lo, out, count, take);
+                return count + (hi - lo);
+            }
+            if(hi - lo <= LEAF || shift == 0){
+                for(int i = lo; i < hi; i++){
+                    if(accepts(mode, a, b, c, d, xs[i], ys[i])){
+                        if(count < out.length) out[count] = ids[i];
+                        count++;
+                    }
+                }
+                return count;
+            }
+            int half = shift - 1;
+            long step = 1L << (2 * half);
+            int s = lo;
+            for(int q = 0; q < 4; q++){
+                int e = q == 3 ? hi : lowerBound(s, hi, base + (q + 1) * step);
+                count = collect(s, e, ix0 + ((long) (q & 1) << half), iy0 + ((long) (q >> 1) << half), half,
+                        base + q * step, mode, a, b, c, d, out, count);
+                s = e;
+            }
+            return count;
+        }
+
+        private static int classify(int mode, double a, double b, double c, double d,
+                                    double x0, double y0, double x1, double y1){
+            if(mode == RECT){
+                if(x1 < a || x0 > c || y1 < b || y0 > d) return DISJOINT;
+                return (x0 >= a && x1 <= c && y0 >= b && y1 <= d) ? INSIDE : PARTIAL;
+            }
+            double nx = Math.max(x0, Math.min(a, x1)) - a, ny = Math.max(y0, Math.min(b, y1)) - b; // punto más cercano
+            if(nx*nx + ny*ny > d) return DISJOINT;
+            double fx = Math.max(a - x0, x1 - a), fy = Math.max(b - y0, y1 - b);                  // esquina más lejana
+            return fx*fx + fy*fy <= d ? INSIDE : PARTIAL;
+        }
+
+        private static boolean accepts(int mode, double a, double b, double c, double d, double x, double y){
+            if(mode == RECT) return x >= a && x <= c && y >= b && y <= d;
+            double dx = x - a, dy = y - b;
+            return dx*dx + dy*dy <= d;
+        }
+
+        /** Primera posición en [lo, hi) con código &gt;= key. */
+        private int lowerBound(int lo, int hi, long key){
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(codes[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // ----- Códigos de Morton -----
+        private int quantize(double offset){
+            return (int) Math.min(offset * scale, MAXQ);
+        }
+
+        /** Intercala los 31 bits bajos de qx (bits pares) y qy (bits impares). */
+        static long morton(int qx, int qy){
+            return spread(qx) | (spread(qy) << 1);
+        }
+
+        private static long spread(int v){
+            long x = v & 0xFFFFFFFFL;
+            x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+            x = (x | (x << 8))  & 0x00FF00FF00FF00FFL;
+            x = (x | (x << 4))  & 0x0F0F0F0F0F0F0F0FL;
+            x = (x | (x << 2))  & 0x3333333333333333L;
+            x = (x | (x << 1))  & 0x5555555555555555L;
+            return x;
+        }
+
+        // ----- Radix sort LSD paralelo -----
+        private static final int RADIX_CHUNK_MIN = 1 << 16;
+
+        /**
+         * Ordena keys (no negativos) arrastrando perm. Cada pasada de 8 bits: histograma por
+         * bloque en paralelo, offsets por (dígito, bloque) y reparto estable en paralelo.
+         * Las pasadas donde todos los códigos comparten dígito se saltan.
+         */
+        static void radixSort(long[] keys, int[] perm){
+            int n = keys.length;
+            int chunks = Math.max(1, Math.min(n / RADIX_CHUNK_MIN, 4 * Runtime.getRuntime().availableProcessors()));
+            int per = (n + chunks - 1) / chunks;
+            long[] srcK = keys, dstK = new long[n];
+            int[] srcP = perm, dstP = new int[n];
+            int[][] hist = new int[chunks][256];
+            for(int shift = 0; shift < 2 * BITS; shift += 8){
+                final int sh = shift;
+                final long[] sk = srcK, dk = dstK;
+                final int[] sp = srcP, dp = dstP;
+                IntStream.range(0, chunks).parallel().forEach(c -> {
+                    int[] h = hist[c];
+                    java.util.Arrays.fill(h, 0);
+                    for(int i = c * per, end = Math.min(n, (c + 1) * per); i < end; i++) h[(int) (sk[i] >>> sh) & 0xFF]++;
+                });
+                boolean trivial = false;
+                int off = 0;
+                for(int dgt = 0; dgt < 256; dgt++){
+                    int total = 0;
+                    for(int c = 0; c < chunks; c++){ int t = hist[c][dgt]; hist[c][dgt] = off; off += t; total += t; }
+                    if(total == n) trivial = true;
+                }
+                if(trivial) continue;
+                IntStream.range(0, chunks).parallel().forEach(c -> {
+                    int[] pos = hist[c];
+                    for(int i = c * per, end = Math.min(n, (c + 1) * per); i < end; i++){
+                        int p = pos[(int) (sk[i] >>> sh) & 0xFF]++;
+                        dk[p] = sk[i];
+                        dp[p] = sp[i];
+                    }
+                });
+                srcK = dk; dstK = sk;
+                srcP = dp; dstP = sp;
+            }
+            if(srcK != keys){
+                System.arraycopy(srcK, 0, keys, 0, n);
+                System.arraycopy(srcP, 0, perm, 0, n);
+            }
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        double[] px = {-15, -3, 0, 2, 4, 7, 10, 12, 14, -8};
+        double[] py = {-15, 5, 0, 3, -4, 7, -10, 12, 1, 9};
+        LinearQuadTree lq = new LinearQuadTree(px, py, -16, -16, 32); // mundo [-16..16]²
+        int[] out = new int[16];
+        int c = lq.queryRange(-5, -5, 5, 5, out);
+        System.out.print("queryRange [-5..5]²:");
+        for(int i = 0; i < c; i++) System.out.print(" (" + px[out[i]] + ", " + py[out[i]] + ")");
+        System.out.println();
+        c = lq.queryCircle(3, 3, 6, out);
+        System.out.print("queryCircle c=(3,3), r=6:");
+        for(int i = 0; i < c; i++) System.out.print(" (" + px[out[i]] + ", " + py[out[i]] + ")");
+        System.out.println();
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+    }
+
+    // ===== BENCHMARK: QuadTree lineal vs. QuadTree de nodos =====
+    // Con 10M puntos: java -Xmx4g EstructuraAvanzada.Arboles.LinearQuadTreeDemo10G 10000000
+    static void benchmark(int n) {
+        Random rnd = new Random(42);
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) { xs[i] = rnd.nextDouble() * 1000; ys[i] = rnd.nextDouble() * 1000; }
+        int queries = 20_000;
+        double[] qx = new double[queries], qy = new double[queries];
+        for (int i = 0; i < queries; i++) { qx[i] = rnd.nextDouble() * 1000; qy[i] = rnd.nextDouble() * 1000; }
+        double h = 5; // semilado de la ventana de consulta
+        int[] buf = new int[1 << 16];
+
+        LinearQuadTree lq = null;
+        long linBuild = 0, linQuery = 0, linHits = 0;
+        for (int rep = 0; rep < 2; rep++) { // 1.ª vuelta: calentamiento JIT
+            long t0 = System.nanoTime();
+            lq = new LinearQuadTree(xs, ys, 0, 0, 1000);
+            linBuild = System.nanoTime() - t0;
+            linHits = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < queries; i++) linHits += lq.queryRange(qx[i] - h, qy[i] - h, qx[i] + h, qy[i] + h, buf);
+            linQuery = System.nanoTime() - t0;
+        }
+
+        long t0 = System.nanoTime();
+        QuadTreeDemo10B.QuadTree qt = new QuadTreeDemo10B.QuadTree(500, 500, 500, 500, 8);
+        for (int i = 0; i < n; i++) qt.insert(xs[i], ys[i]);
+        long ptrBuild = System.nanoTime() - t0;
+        long ptrHits = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < queries; i++) ptrHits += qt.queryRange(qx[i], qy[i], h, h).size();
+        long ptrQuery = System.nanoTime() - t0;
+
+        System.out.printf("%n[n=%,d, %,d consultas %.0f×%.0f, %d núcleos]%n", n, queries, 2 * h, 2 * h,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("lineal: build %d ms, consultas %.2f µs/c (%,d resultados)%n",
+                linBuild / 1_000_000, linQuery / 1e3 / queries, linHits);
+        System.out.printf("nodos : build %d ms, consultas %.2f µs/c (%,d resultados)%n",
+                ptrBuild / 1_000_000, ptrQuery / 1e3 / queries, ptrHits);
+        System.out.println("puntos en la mitad izquierda (countRange): " + lq.countRange(0, 0, 500, 1000));
+    }
+}
@@ -0,0 +1,286 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * n.º 10F — Loose QuadTree de entidades con caja (AABB) que se mueven.
+ * A diferencia de QuadTreeDemo10B.QuadTree (solo puntos, sin borrar), guarda ids de
+ * entidad con su caja [minX,maxX]×[minY,maxY]:
+ *  - Celda "loose": cada nodo acepta objetos que caben en su caja ampliada al doble
+ *    (centro igual, semiancho ×2). Así un objeto pequeño nunca se queda atascado en
+ *    la raíz por cruzar una línea de división.
+ *  - update(id, caja): si la nueva caja sigue dentro de la celda loose actual solo se
+ *    actualizan las coordenadas (O(1)); si sale, se quita y se reinserta.
+ *  - remove(id) y fusión: cada nodo lleva el conteo de su subárbol; cuando un nodo
+ *    dividido baja a capacity / 2 o menos, sus hijos se fusionan en él (histéresis
+ *    respecto a la división, que ocurre al superar capacity).
+ *
+ * Complejidades: insert / remove O(profundidad); update O(1) si no cambia de celda;
+ * queryRange O(nodos visitados + resultados).
+ */
+public class LooseQuadTreeDemo10F {
+
+    static class LooseQuadTree {
+        static final class Entity {
+            final int id;
+            double minX, minY, maxX, maxY;
+            Node node;  // nodo que la contiene
+            int slot;   // posición en node.items (borrado O(1) por intercambio)
+            Entity(int id){ this.id=id; }
+        }
+
+        static final class Node {
+            final double cx, cy, hw, hh; // celda estricta; la loose es (cx, cy, 2hw, 2hh)
+            final int depth;
+            final Node parent;
+            final ArrayList<Entity> items = new ArrayList<>();
+            Node[] child;               // null si es hoja; índice = (x>=cx ? 1 : 0) | (y>=cy ? 2 : 0)
+            int count;                  // entidades en todo el subárbol
+
+            Node(double cx,double cy,double hw,double hh,int depth,Node parent){
+                this.cx=cx; this.cy=cy; this.hw=hw; this.hh=hh; this.depth=depth; this.parent=parent;
+            }
+            boolean looseContains(double minX,double minY,double maxX,double maxY){
+                return minX >= cx - 2*hw && maxX <= cx + 2*hw && minY >= cy - 2*hh && maxY <= cy + 2*hh;
+            }
+            boolean looseIntersects(double minX,double minY,double maxX,double maxY){
+                return minX <= cx + 2*hw && maxX >= cx - 2*hw && minY <= cy + 2*hh && maxY >= cy - 2*hh;
+            }
+        }
+
+        private final Node root;
+        private final int capacity, maxDepth;
+        private final HashMap<Integer, Entity> byId = new HashMap<>();
+        private long reinserts; // updates que cambiaron de celda (estadística)
+
+        public LooseQuadTree(double cx,double cy,double hw,double hh,int capacity,int maxDepth){
+            if(capacity <= 0 || maxDepth < 0) throw new IllegalArgumentException();
+            this.root = new Node(cx,cy,hw,hh,0,null);
+            this.capacity = capacity;
+            this.maxDepth = maxDepth;
+        }
+
+        public int size(){ return byId.size(); }
+        public boolean contains(int id){ return byId.containsKey(id); }
+        public long reinsertCount(){ return reinserts; }
+
+        /** Inserta la entidad id con su caja. Lo que no cabe en ningún hijo (o sale del mundo) queda en la raíz. */
+        public void insert(int id,double minX,double minY,double maxX,double maxY){
+            checkBox(minX,minY,maxX,maxY);
+            if(byId.containsKey(id)) throw new IllegalArgumentException("duplicate id: " + id);
+            Entity e = new Entity(id);
+            e.minX=minX; e.minY=minY; e.maxX=maxX; e.maxY=maxY;
+            byId.put(id, e);
+            insert(root, e);
+        }
+
+        /** Mueve/redimensiona la entidad; solo reinserta si sale de su celda loose o si ya cabe en un hijo. */
+        public void update(int id,double minX,double minY,double maxX,double maxY){
+            checkBox(minX,minY,maxX,maxY);
+            Entity e = byId.get(id);
+            if(e == null) throw new NoSuchElementException("unknown id: " + id);
+            e.minX=minX; e.minY=minY; e.maxX=maxX; e.maxY=maxY;
+            Node n = e.node;
+            boolean fits = n == root || n.looseContains(minX,minY,maxX,maxY);
+            // sigue cabiendo en n, pero si ahora cabe en un hijo (encogió o volvió al mundo) hay que bajarla
+            boolean down = fits && n.child != null && n.child[quadrant(n, e)].looseContains(minX,minY,maxX,maxY);
+            if(fits && !down) return; // sigue en su celda
+            reinserts++;
+            detach(e);
+            // bajar desde n, o subir hasta el primer ancestro cuya celda loose la contenga y bajar desde ahí
+            Node from = n;
+            if(!down){
+                from = n.parent;
+                while(from != root && !from.looseContains(minX,minY,maxX,maxY)) from = from.parent;
+            }
+            insert(from, e);
+            // detach restó 1 hasta la raíz e insert solo suma desde 'from': reponer los de arriba
+            for(Node a = from.parent; a != null; a = a.parent) a.count++;
+            mergeUpFrom(n);
+        }
+
+        /** Elimina la entidad; devuelve false si no existía. */
+        public boolean remove(int id){
+            Entity e = byId.remove(id);
+            if(e == null) return false;
+            Node n = e.node;
+            detach(e);
+            mergeUpFrom(n);
+            return true;
+        }
+
+        /** Ids cuyas cajas se solapan con [minX,maxX]×[minY,maxY]. */
+        public List<Integer> queryRange(double minX,double minY,double maxX,double maxY){
+            ArrayList<Integer> out = new ArrayList<>();
+            forEachInRange(minX,minY,maxX,maxY, out::add);
+            return out;
+        }
+
+        /** Igual que queryRange pero sin crear lista: llama a action por cada id encontrado. */
+        public void forEachInRange(double minX,double minY,double maxX,double maxY,IntConsumer action){
+            query(root, minX,minY,maxX,maxY, action);
+        }
+
+        private void query(Node n,double minX,double minY,double maxX,double maxY,IntConsumer action){
+            if(n.count == 0 || (n != root && !n.looseIntersects(minX,minY,maxX,maxY))) return;
+            for(Entity e : n.items){
+                if(e.minX <= maxX && e.maxX >= minX && e.minY <= maxY && e.maxY >= minY) action.accept(e.id);
+            }
+            if(n.child != null) for(Node c : n.child) query(c, minX,minY,maxX,maxY, action);
+        }
+
+        public int nodeCount(){ return nodeCount(root); }
+        private int nodeCount(Node n){
+            int c = 1;
+            if(n.child != null) for(Node ch : n.child) c += nodeCount(ch);
+            return c;
+        }
+
+        public int height(){ return height(root); }
+        private int height(Node n){
+            int h = 0;
+            if(n.child != null) for(Node ch : n.child) h = Math.max(h, height(ch));
+            return h + 1;
+        }
+
+        public String dump(){ StringBuilder sb=new StringBuilder(); dump(root,sb); return sb.toString(); }
+        private void dump(Node n,StringBuilder sb){
+            sb.append("  ".repeat(n.depth)).append("cell c=(").append(n.cx).append(",").append(n.cy)
+              .append(") hw=").append(n.hw).append(" count=").append(n.count).append(" :: ");
+            for(Entity e : n.items) sb.append(e.id).append(' ');
+            sb.append("\n");
+            if(n.child != null) for(Node c : n.child) dump(c,sb);
+        }
+
+        // ----- Internos -----
+        private static void checkBox(double minX,double minY,double maxX,double maxY){
+            if(!(minX <= maxX) || !(minY <= maxY)) throw new IllegalArgumentException("invalid box");
+        }
+
+        /** Baja desde n hasta el nodo más profundo cuya celda loose contenga a e; suma 1 al conteo del camino. */
+        private void insert(Node n, Entity e){
+            while(true){
+                n.count++;
+                if(n.child != null){
+                    Node c = n.child[quadrant(n, e)];
+                    if(c.looseContains(e.minX,e.minY,e.maxX,e.maxY)){ n = c; continue; }
+                }
+                attach(n, e);
+                if(n.child == null && n.items.size() > capacity && n.depth < maxDepth) split(n);
+                return;
+            }
+        }
+
+        private static int quadrant(Node n, Entity e){
+            double x = (e.minX + e.maxX) * 0.5, y = (e.minY + e.maxY) * 0.5;
+            return (x >= n.cx ? 1 : 0) | (y >= n.cy ? 2 : 0);
+        }
+
+        private void split(Node n){
+            double hw = n.hw/2, hh = n.hh/2;
+            n.child = new Node[4];
+            for(int q=0;q<4;q++){
+                n.child[q] = new Node(n.cx + ((q & 1) != 0 ? hw : -hw), n.cy + ((q & 2) != 0 ? hh : -hh), hw, hh, n.depth+1, n);
+            }
+            // bajar lo que quepa en un hijo; lo demás se queda en n
+            ArrayList<Entity> old = new ArrayList<>(n.items);
+            n.items.clear();
+            for(Entity e : old){
+                Node c = n.child[quadrant(n, e)];
+                if(c.looseContains(e.minX,e.minY,e.maxX,e.maxY)) insert(c, e);
+                else attach(n, e);
+            }
+        }
+
+        private static void attach(Node n, Entity e){
+            e.node = n;
+            e.slot = n.items.size();
+            n.items.add(e);
+        }
+
+        /** Quita e de su nodo (intercambio con el último) y resta 1 al conteo hasta la raíz. */
+        private static void detach(Entity e){
+            ArrayList<Entity> items = e.node.items;
+            Entity last = items.remove(items.size() - 1);
+            if(last != e){ items.set(e.slot, last); last.slot = e.slot; }
+            for(Node a = e.node; a != null; a = a.parent) a.count--;
+            e.node = null;
+        }
+
+        /** Fusiona el ancestro más alto de n que quedó con capacity / 2 entidades o menos. */
+        private void mergeUpFrom(Node n){
+            Node target = null;
+            for(Node a = n; a != null; a = a.parent){
+                if(a.child != null && a.count <= capacity / 2) target = a;
+            }
+            if(target == null) return;
+            for(Node c : target.child) collect(c, target);
+            target.child = null;
+        }
+
+        private static void collect(Node from, Node into){
+            for(Entity e : from.items) attach(into, e);
+            if(from.child != null) for(Node c : from.child) collect(c, into);
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        LooseQuadTree lq = new LooseQuadTree(0,0,16,16,2,6); // mundo [-16..16]², cap=2, prof. máx 6
+        lq.insert(1, -10,-10, -9,-9);
+        lq.insert(2, -1,-1, 1,1);        // cruza el centro: en un quadtree estricto quedaría en la raíz
+        lq.insert(3, 5,5, 6,7);
+        lq.insert(4, 8,8, 8.5,8.5);
+        lq.insert(5, -20,3, -18,4);      // fuera del mundo → raíz
+        System.out.println("Loose QuadTree:\n" + lq.dump());
+        System.out.println("queryRange [-2..6]×[-2..6]: " + lq.queryRange(-2,-2,6,6));   // 2, 3
+
+        lq.update(3, 5.5,5.5, 6.5,7.5); // movimiento pequeño: misma celda
+        lq.update(1, 9,-12, 10,-11);    // cambia de cuadrante: reinserción
+        System.out.println("tras update → reinserciones: " + lq.reinsertCount() + ", queryRange [8..11]×[-13..-10]: " + lq.queryRange(8,-13,11,-10));
+        lq.remove(4);
+        lq.remove(3);
+        System.out.println("tras remove(4), remove(3):\n" + lq.dump());
+
+        benchmarkTicks(args.length > 0 ? Integer.parseInt(args[0]) : 200_000);
+    }
+
+    // ===== BENCHMARK: update por tick vs reconstrucción completa =====
+    static void benchmarkTicks(int n) {
+        double world = 1000;
+        Random rnd = new Random(42);
+        double[] x = new double[n], y = new double[n], vx = new double[n], vy = new double[n], r = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = rnd.nextDouble() * 2 * world - world;
+            y[i] = rnd.nextDouble() * 2 * world - world;
+            vx[i] = rnd.nextGaussian();
+            vy[i] = rnd.nextGaussian();
+            r[i] = 0.25 + rnd.nextDouble() * 2;
+        }
+        LooseQuadTree lq = new LooseQuadTree(0, 0, world, world, 16, 12);
+        for (int i = 0; i < n; i++) lq.insert(i, x[i] - r[i], y[i] - r[i], x[i] + r[i], y[i] + r[i]);
+
+        int ticks = 20;
+        long updateNs = 0, rebuildNs = 0, mismatch = 0;
+        for (int t = 0; t < ticks; t++) {
+            for (int i = 0; i < n; i++) {
+                x[i] += vx[i]; y[i] += vy[i];
+                if (x[i] < -world || x[i] > world) vx[i] = -vx[i];
+                if (y[i] < -world || y[i] > world) vy[i] = -vy[i];
+            }
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) lq.update(i, x[i] - r[i], y[i] - r[i], x[i] + r[i], y[i] + r[i]);
+            updateNs += System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            LooseQuadTree fresh = new LooseQuadTree(0, 0, world, world, 16, 12);
+            for (int i = 0; i < n; i++) fresh.insert(i, x[i] - r[i], y[i] - r[i], x[i] + r[i], y[i] + r[i]);
+            rebuildNs += System.nanoTime() - t0;
+            mismatch += fresh.queryRange(-50, -50, 50, 50).size() - lq.queryRange(-50, -50, 50, 50).size(); // deben coincidir
+        }
+        System.out.printf("%n[%,d entidades, %d ticks] update: %.1f ms/tick | rebuild: %.1f ms/tick | reinserciones: %.1f%% | nodos: %,d | diferencia en consultas: %d%n",
+                n, ticks, updateNs / 1e6 / ticks, rebuildNs / 1e6 / ticks,
+                100.0 * lq.reinsertCount() / ((long) n * ticks), lq.nodeCount(), mismatch);
+    }
+}
@@ -0,0 +1,164 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Random;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * n.º 9B — Segment Tree iterativo (bottom-up) sobre un monoide primitivo.
+ * Variante de SegmentFenwickDemo9.SegmentTree sin recursión y sin fijar la operación:
+ * se parametriza con un elemento neutro (identity) y una operación asociativa
+ * (combine) sobre long → suma, mín, máx, gcd o agregados propios.
+ *
+ * Almacenamiento: un único long[2·size] con size = potencia de 2 ≥ n
+ * (hojas en [size, 2·size), nodo p con hijos 2p y 2p+1), frente a ~4n del recursivo.
+ * No hace falta que combine sea conmutativa: la consulta acumula por separado
+ * el lado izquierdo y el derecho y los une al final en orden.
+ *
+ * Complejidades: build O(n), query O(log n), pointSet O(log n), get O(1).
+ */
+public class MonoidSegmentTreeDemo9B {
+
+    static final class MonoidSegmentTree {
+        private final int n;        // tamaño lógico
+        private final int size;     // potencia de 2 ≥ n (primera hoja)
+        private final long[] t;     // árbol implícito de 2·size posiciones
+        private final long identity;
+        private final LongBinaryOperator combine;
+
+        public MonoidSegmentTree(long[] values, long identity, LongBinaryOperator combine) {
+            this.n = values.length;
+            this.identity = identity;
+            this.combine = combine;
+            int sz = 1;
+            while (sz < Math.max(1, n)) sz <<= 1;
+            this.size = sz;
+            this.t = new long[2 * sz];
+            // hojas y relleno con el neutro; luego padres de abajo a arriba (sin recursión)
+            System.arraycopy(values, 0, t, size, n);
+            for (int i = size + n; i < 2 * size; i++) t[i] = identity;
+            for (int p = size - 1; p >= 1; p--) t[p] = combine.applyAsLong(t[p << 1], t[p << 1 | 1]);
+        }
+
+        // ----- Monoides habituales -----
+        public static MonoidSegmentTree sum(long[] v) { return new MonoidSegmentTree(v, 0L, Long::sum); }
+        public static MonoidSegmentTree min(long[] v) { return new MonoidSegmentTree(v, Long.MAX_VALUE, Math::min); }
+        public static MonoidSegmentTree max(long[] v) { return new MonoidSegmentTree(v, Long.MIN_VALUE, Math::max); }
+        public static MonoidSegmentTree gcd(long[] v) { return new MonoidSegmentTree(v, 0L, MonoidSegmentTree::gcd); }
+
+        private static long gcd(long a, long b) {
+            a = Math.abs(a); b = Math.abs(b);
+            while (b != 0) { long r = a % b; a = b; b = r; }
+            return a;
+        }
+
+        public int size() { return n; }
+
+        /** Valor actual de a[idx]. */
+        public long get(int idx) {
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            return t[size + idx];
+        }
+
+        /** a[idx] = v y recalcula los ancestros hacia la raíz. */
+        public void pointSet(int idx, long v) {
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            int p = size + idx;
+            t[p] = v;
+            for (p >>= 1; p >= 1; p >>= 1) t[p] = combine.applyAsLong(t[p << 1], t[p << 1 | 1]);
+        }
+
+        /** a[idx] = combine(a[idx], v) (p. ej. suma por delta en el monoide suma). */
+        public void pointCombine(int idx, long v) {
+            pointSet(idx, combine.applyAsLong(get(idx), v));
+        }
+
+        /** combine(a[L], ..., a[R]) en [L, R] inclusive. */
+        public long query(int L, int R) {
+            if (L < 0 || R >= n || L > R) throw new IllegalArgumentException();
+            long resL = identity, resR = identity;
+            int l = L + size, r = R + size + 1; // intervalo semiabierto [l, r) sobre las hojas
+            while (l < r) {
+                if ((l & 1) == 1) resL = combine.applyAsLong(resL, t[l++]);
+                if ((r & 1) == 1) resR = combine.applyAsLong(t[--r], resR);
+                l >>= 1;
+                r >>= 1;
+            }
+            return combine.applyAsLong(resL, resR);
+        }
+
+        /** combine de todo el arreglo: O(1). */
+        public long queryAll() { return t[1]; }
+
+        /** Número de longs reservados (para comparar memoria). */
+        public int capacity() { return t.length; }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        long[] buckets = {5, -3, 7, 2, 9, 1, 4}; // p. ej. agregados por cubeta temporal
+
+        MonoidSegmentTree sum = MonoidSegmentTree.sum(buckets);
+        MonoidSegmentTree min = MonoidSegmentTree.min(buckets);
+        MonoidSegmentTree max = MonoidSegmentTree.max(buckets);
+        MonoidSegmentTree gcd = MonoidSegmentTree.gcd(new long[]{12, 18, 24, 36, 7, 14});
+
+        System.out.println("sum(0, 3) = " + sum.query(0, 3)); // 11
+        System.out.println("min(1, 5) = " + min.query(1, 5)); // -3
+        System.out.println("max(0, 6) = " + max.query(0, 6)); // 9
+        System.out.println("gcd(0, 3) = " + gcd.query(0, 3)); // 6
+        System.out.println("gcd(4, 5) = " + gcd.query(4, 5)); // 7
+
+        sum.pointCombine(1, 5); // -3 → 2
+        max.pointSet(2, 100);
+        System.out.println("tras updates: sum(0, 3) = " + sum.query(0, 3) + ", max(0, 6) = " + max.queryAll()); // 16, 100
+
+        // Agregado propio (no conmutativo): componer funciones afines x → a·x + b
+        // codificadas en un long como (a << 32) | b, con a, b pequeños.
+        long[] affine = {pack(2, 1), pack(1, 3), pack(3, 0)};
+        MonoidSegmentTree comp = new MonoidSegmentTree(affine, pack(1, 0), (f, g) -> {
+            long a1 = f >> 32, b1 = (int) f, a2 = g >> 32, b2 = (int) g; // aplicar f y luego g
+            return pack(a2 * a1, a2 * b1 + b2);
+        });
+        long f = comp.query(0, 2); // x → 3·((2x + 1) + 3) = 6x + 12
+        System.out.println("composición afín [0..2]: x → " + (f >> 32) + "x + " + (int) f);
+
+        // Benchmark frente al SegmentTree recursivo (4n) del demo 9
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmark(n);
+    }
+
+    private static long pack(long a, long b) { return (a << 32) | (b & 0xFFFFFFFFL); }
+
+    // ===== BENCHMARK iterativo (monoide) vs. recursivo =====
+    static void benchmark(int n) {
+        Random rnd = new Random(42);
+        int[] data = new int[n];
+        long[] dataL = new long[n];
+        for (int i = 0; i < n; i++) { data[i] = rnd.nextInt(1000); dataL[i] = data[i]; }
+        SegmentFenwickDemo9.SegmentTree rec = new SegmentFenwickDemo9.SegmentTree(data);
+        MonoidSegmentTree it = MonoidSegmentTree.sum(dataL);
+
+        int q = 2_000_000;
+        int[] L = new int[q], R = new int[q];
+        for (int i = 0; i < q; i++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            L[i] = Math.min(a, b);
+            R[i] = Math.max(a, b);
+        }
+        long check = 0;
+        for (int rep = 0; rep < 2; rep++) { // la 1.ª vuelta sirve de calentamiento JIT
+            long t0 = System.nanoTime();
+            for (int i = 0; i < q; i++) check += rec.rangeSum(L[i], R[i]);
+            long recNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < q; i++) check -= it.query(L[i], R[i]);
+            long itNs = System.nanoTime() - t0;
+            if (rep == 1) {
+                System.out.printf("%n[Benchmark n=%,d] recursivo: %.0f ns/consulta (4n = %,d longs por arreglo) | "
+                                + "iterativo: %.0f ns/consulta (%,d longs)%n",
+                        n, recNs / (double) q, 4L * n, itNs / (double) q, (long) it.capacity());
+            }
+        }
+        if (check != 0) throw new IllegalStateException("resultados distintos");
+    }
+}
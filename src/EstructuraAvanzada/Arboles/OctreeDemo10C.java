@@ -1,6 +1,9 @@
 package EstructuraAvanzada.Arboles;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
 
 public class OctreeDemo10C {
 
@@ -28,7 +31,24 @@ public class OctreeDemo10C {
             final List<double[]> points = new ArrayList<>();
             boolean divided;
             Node[] child = new Node[8]; // 8 octantes
+            // Resumen del subárbol (para LOD / densidad sin bajar a las hojas)
+            int count;
+            double sumX, sumY, sumZ;
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
             Node(AABB3D box, int capacity){ this.box=box; this.capacity=capacity; }
+
+            void addToSummary(double x,double y,double z){
+                count++; sumX+=x; sumY+=y; sumZ+=z;
+                minX=Math.min(minX,x); minY=Math.min(minY,y); minZ=Math.min(minZ,z);
+                maxX=Math.max(maxX,x); maxY=Math.max(maxY,y); maxZ=Math.max(maxZ,z);
+            }
+            void addToSummary(Node c){
+                if(c.count == 0) return;
+                count+=c.count; sumX+=c.sumX; sumY+=c.sumY; sumZ+=c.sumZ;
+                minX=Math.min(minX,c.minX); minY=Math.min(minY,c.minY); minZ=Math.min(minZ,c.minZ);
+                maxX=Math.max(maxX,c.maxX); maxY=Math.max(maxY,c.maxY); maxZ=Math.max(maxZ,c.maxZ);
+            }
         }
 
         private final Node root;
@@ -42,22 +62,16 @@ public class OctreeDemo10C {
             if(!n.box.contains(x,y,z)) return false;
             if(n.points.size() < n.capacity && !n.divided){
                 n.points.add(new double[]{x,y,z});
+                n.addToSummary(x,y,z);
                 return true;
             }
             if(!n.divided) subdivide(n);
-            for(Node c : n.child) if(insert(c,x,y,z)) return true;
+            for(Node c : n.child) if(insert(c,x,y,z)){ n.addToSummary(x,y,z); return true; }
             return false;
         }
 
         private void subdivide(Node n){
-            double cx=n.box.cx, cy=n.box.cy, cz=n.box.cz;
-            double hx=n.box.hx/2, hy=n.box.hy/2, hz=n.box.hz/2;
-            int i=0;
-            for(int dx=-1; dx<=1; dx+=2)
-                for(int dy=-1; dy<=1; dy+=2)
-                    for(int dz=-1; dz<=1; dz+=2)
-                        n.child[i++] = new Node(new AABB3D(cx+dx*hx, cy+dy*hy, cz+dz*hz, hx, hy, hz), n.capacity);
-            n.divided = true;
+            makeChildren(n);
             for(double[] p : n.points){
                 for(Node c : n.child) if(insert(c,p[0],p[1],p[2])) break;
             }
@@ -78,6 +92,278 @@ public class OctreeDemo10C {
             }
         }
 
+        // Crea los 8 hijos (índice = (dx>0?4:0) | (dy>0?2:0) | (dz>0?1:0)) y marca n como dividido
+        private static void makeChildren(Node n){
+            double cx=n.box.cx, cy=n.box.cy, cz=n.box.cz;
+            double hx=n.box.hx/2, hy=n.box.hy/2, hz=n.box.hz/2;
+            int i=0;
+            for(int dx=-1; dx<=1; dx+=2)
+                for(int dy=-1; dy<=1; dy+=2)
+                    for(int dz=-1; dz<=1; dz+=2)
+                        n.child[i++] = new Node(new AABB3D(cx+dx*hx, cy+dy*hy, cz+dz*hz, hx, hy, hz), n.capacity);
+            n.divided = true;
+        }
+
+        // ----- Construcción paralela -----
+        static final int CODE_LEVELS = 21;               // niveles codificados (3 bits cada uno → 63 bits)
+        private static final int PARALLEL_MIN = 1 << 14; // por debajo, los subárboles se construyen en el mismo hilo
+
+        // Construye el octree de golpe: (1) código de Morton por punto, en paralelo; (2) radix sort
+        // paralelo de los códigos; (3) como los puntos de cada octante quedan contiguos, cada
+        // subárbol se construye en su propia tarea ForkJoin (a partir de los 8 octantes de la raíz,
+        // y más abajo mientras el tramo tenga >= PARALLEL_MIN puntos); (4) los resúmenes se
+        // calculan de abajo arriba al cerrar cada tarea. Si más de 'capacity' puntos comparten
+        // celda tras CODE_LEVELS niveles, esa hoja se queda con todos.
+        public static Octree build(double[] xs,double[] ys,double[] zs,
+                                   double cx,double cy,double cz,double hx,double hy,double hz,int capacity){
+            if(xs.length != ys.length || xs.length != zs.length) throw new IllegalArgumentException("xs/ys/zs length mismatch");
+            Octree t = new Octree(cx,cy,cz,hx,hy,hz,capacity);
+            int n = xs.length;
+            long[] codes = new long[n];
+            int[] perm = new int[n];
+            AABB3D box = t.root.box;
+            IntStream.range(0, n).parallel().forEach(i -> {
+                if(!box.contains(xs[i],ys[i],zs[i])) throw new IllegalArgumentException("point outside octree: " + i);
+                codes[i] = code(box, xs[i], ys[i], zs[i]);
+                perm[i] = i;
+            });
+            LinearQuadTreeDemo10G.LinearQuadTree.radixSort(codes, perm);
+            ForkJoinPool.commonPool().invoke(new BuildTask(t.root, 0, 0L, 0, n, codes, perm, xs, ys, zs));
+            return t;
+        }
+
+        // Código de Morton jerárquico: en cada nivel elige el octante igual que insert() (primer hijo
+        // cuya caja contiene el punto, con la misma aritmética que makeChildren), así el orden de los
+        // códigos coincide exactamente con las cajas del árbol.
+        private static long code(AABB3D root,double x,double y,double z){
+            double cx=root.cx, cy=root.cy, cz=root.cz, hx=root.hx, hy=root.hy, hz=root.hz;
+            long code = 0;
+            for(int level=0; level<CODE_LEVELS; level++){
+                hx/=2; hy/=2; hz/=2;
+                int bx = Math.abs(x-(cx-hx)) <= hx ? 0 : 1;
+                int by = Math.abs(y-(cy-hy)) <= hy ? 0 : 1;
+                int bz = Math.abs(z-(cz-hz)) <= hz ? 0 : 1;
+                cx = cx + (2*bx-1)*hx; cy = cy + (2*by-1)*hy; cz = cz + (2*bz-1)*hz;
+                code = (code << 3) | (bx << 2) | (by << 1) | bz;
+            }
+            return code;
+        }
+
+        private static final class BuildTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            final Node node; final int depth; final long prefix; final int lo, hi;
+            final long[] codes; final int[] perm; final double[] xs, ys, zs;
+            BuildTask(Node node,int depth,long prefix,int lo,int hi,long[] codes,int[] perm,double[] xs,double[] ys,double[] zs){
+                this.node=node; this.depth=depth; this.prefix=prefix; this.lo=lo; this.hi=hi;
+                this.codes=codes; this.perm=perm; this.xs=xs; this.ys=ys; this.zs=zs;
+            }
+            @Override protected void compute(){
+                if(hi - lo <= node.capacity || depth == CODE_LEVELS){
+                    for(int i=lo;i<hi;i++){
+                        int p = perm[i];
+                        node.points.add(new double[]{xs[p],ys[p],zs[p]});
+                        node.addToSummary(xs[p],ys[p],zs[p]);
+                    }
+                    return;
+                }
+                makeChildren(node);
+                int shift = 3 * (CODE_LEVELS - depth - 1);
+                BuildTask[] tasks = new BuildTask[8];
+                int s = lo;
+                for(int oct=0; oct<8; oct++){
+                    int e = oct == 7 ? hi : lowerBound(codes, s, hi, (((prefix << 3) | oct) + 1) << shift);
+                    tasks[oct] = new BuildTask(node.child[oct], depth+1, (prefix << 3) | oct, s, e, codes, perm, xs, ys, zs);
+                    s = e;
+                }
+                if(hi - lo >= PARALLEL_MIN) invokeAll(tasks);
+                else for(BuildTask t : tasks) t.compute();
+                for(Node c : node.child) node.addToSummary(c);
+            }
+        }
+
+        private static int lowerBound(long[] a,int lo,int hi,long key){
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(a[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // ----- LOD y densidad a partir de los resúmenes -----
+        public int size(){ return root.count; }
+
+        // Nivel de detalle: un representante {centroide x, y, z, cuenta} por cada nodo no vacío a
+        // profundidad 'depth' (o por cada hoja más somera). No baja más allá de esa profundidad.
+        public List<double[]> lod(int depth){
+            ArrayList<double[]> out = new ArrayList<>();
+            lod(root, 0, depth, out);
+            return out;
+        }
+        private void lod(Node n,int d,int depth,List<double[]> out){
+            if(n.count == 0) return;
+            if(d == depth || !n.divided){
+                out.add(new double[]{ n.sumX/n.count, n.sumY/n.count, n.sumZ/n.count, n.count });
+                return;
+            }
+            for(Node c : n.child) lod(c, d+1, depth, out);
+        }
+
+        // Cuántos puntos hay en la caja. Usa los límites reales de cada subárbol: si caen dentro
+        // del rango se suma su cuenta sin visitarlo; si no lo tocan se descarta entero.
+        public int countRange(double cx,double cy,double cz,double hx,double hy,double hz){
+            return count(root, cx-hx, cy-hy, cz-hz, cx+hx, cy+hy, cz+hz);
+        }
+        private int count(Node n,double x0,double y0,double z0,double x1,double y1,double z1){
+            if(n.count == 0 || n.maxX < x0 || n.minX > x1 || n.maxY < y0 || n.minY > y1 || n.maxZ < z0 || n.minZ > z1) return 0;
+            if(n.minX >= x0 && n.maxX <= x1 && n.minY >= y0 && n.maxY <= y1 && n.minZ >= z0 && n.maxZ <= z1) return n.count;
+            int c = 0;
+            if(!n.divided){
+                for(double[] p : n.points) if(p[0]>=x0 && p[0]<=x1 && p[1]>=y0 && p[1]<=y1 && p[2]>=z0 && p[2]<=z1) c++;
+            }else{
+                for(Node ch : n.child) c += count(ch, x0,y0,z0,x1,y1,z1);
+            }
+            return c;
+        }
+
+        // ----- Raycast y frustum culling -----
+        // Estado de recorrido (pila explícita) de un llamador. Vive fuera del árbol para que
+        // varias consultas de solo lectura puedan correr a la vez sobre el mismo Octree: cada
+        // hilo usa su propio Cursor y, reutilizándolo, en régimen estable no se asigna nada
+        // (solo crece si el árbol es más profundo de lo previsto). Un Cursor no se comparte
+        // entre hilos; las sobrecargas sin Cursor usan uno por hilo.
+        static final class Cursor {
+            private Node[] stack = new Node[64];
+            private double[] stackT = new double[64];   // raycast: t de entrada a la caja
+            private int[] stackMask = new int[64];      // frustum: planos que aún cortan la caja
+            private final double[] childT = new double[8];
+            private final int[] childOrder = new int[8];
+
+            private void grow(){
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                stackT = Arrays.copyOf(stackT, stackT.length * 2);
+                stackMask = Arrays.copyOf(stackMask, stackMask.length * 2);
+            }
+        }
+        private static final ThreadLocal<Cursor> CURSOR = ThreadLocal.withInitial(Cursor::new);
+
+        public double raycast(double ox,double oy,double oz,double dx,double dy,double dz,
+                              double maxDist,double radius,double[] hitOut){
+            return raycast(ox,oy,oz, dx,dy,dz, maxDist, radius, hitOut, CURSOR.get());
+        }
+
+        // Primer punto que toca el rayo o + t·dir (t en [0, maxDist]), tomando cada punto como
+        // una esfera de radio 'radius'. Devuelve t (en unidades de |dir|=1) y copia el punto en
+        // hitOut, o -1 si no hay impacto. Recorre octantes de delante hacia atrás y poda los
+        // que empiezan más lejos que el mejor impacto encontrado.
+        public double raycast(double ox,double oy,double oz,double dx,double dy,double dz,
+                              double maxDist,double radius,double[] hitOut,Cursor cur){
+            Node[] stack = cur.stack; double[] stackT = cur.stackT;
+            double[] childT = cur.childT; int[] childOrder = cur.childOrder;
+            double len = Math.sqrt(dx*dx + dy*dy + dz*dz);
+            if(len == 0) throw new IllegalArgumentException("dir must be non-zero");
+            dx/=len; dy/=len; dz/=len;
+            double idx = 1/dx, idy = 1/dy, idz = 1/dz, r2 = radius*radius;
+            double best = maxDist;
+            double[] bestP = null;
+            int sp = 0;
+            double t0 = enterT(root.box, radius, ox,oy,oz, idx,idy,idz, best);
+            if(t0 >= 0){ stack[sp] = root; stackT[sp++] = t0; }
+            while(sp > 0){
+                Node n = stack[--sp];
+                if(stackT[sp] > best) continue;           // otro impacto ya quedó más cerca
+                if(!n.divided){
+                    for(double[] p : n.points){
+                        double wx=p[0]-ox, wy=p[1]-oy, wz=p[2]-oz;
+                        double t = wx*dx + wy*dy + wz*dz;
+                        double perp2 = wx*wx + wy*wy + wz*wz - t*t;
+                        if(perp2 > r2) continue;
+                        double half = Math.sqrt(r2 - perp2);
+                        double hit = t - half >= 0 ? t - half : (t + half >= 0 ? 0 : -1);
+                        if(hit >= 0 && hit <= best){ best = hit; bestP = p; }
+                    }
+                    continue;
+                }
+                // hijos que el rayo atraviesa, apilados del más lejano al más cercano
+                int m = 0;
+                for(int i=0;i<8;i++){
+                    double t = enterT(n.child[i].box, radius, ox,oy,oz, idx,idy,idz, best);
+                    if(t < 0) continue;
+                    int j = m++;
+                    while(j > 0 && childT[j-1] < t){ childT[j] = childT[j-1]; childOrder[j] = childOrder[j-1]; j--; }
+                    childT[j] = t; childOrder[j] = i;
+                }
+                if(sp + m > stack.length){ cur.grow(); stack = cur.stack; stackT = cur.stackT; }
+                for(int j=0;j<m;j++){ stack[sp] = n.child[childOrder[j]]; stackT[sp++] = childT[j]; }
+            }
+            if(bestP == null) return -1;
+            hitOut[0]=bestP[0]; hitOut[1]=bestP[1]; hitOut[2]=bestP[2];
+            return best;
+        }
+
+        // t de entrada del rayo en la caja ampliada por 'pad' (0 si empieza dentro), o -1 si no la
+        // cruza antes de maxT. Método de slabs.
+        private static double enterT(AABB3D b,double pad,double ox,double oy,double oz,
+                                     double idx,double idy,double idz,double maxT){
+            double tx1 = (b.cx - b.hx - pad - ox)*idx, tx2 = (b.cx + b.hx + pad - ox)*idx;
+            double ty1 = (b.cy - b.hy - pad - oy)*idy, ty2 = (b.cy + b.hy + pad - oy)*idy;
+            double tz1 = (b.cz - b.hz - pad - oz)*idz, tz2 = (b.cz + b.hz + pad - oz)*idz;
+            double tmin = Math.max(Math.max(Math.min(tx1,tx2), Math.min(ty1,ty2)), Math.min(tz1,tz2));
+            double tmax = Math.min(Math.min(Math.max(tx1,tx2), Math.max(ty1,ty2)), Math.max(tz1,tz2));
+            if(Double.isNaN(tmin) || Double.isNaN(tmax)) return -1; // rayo paralelo justo sobre una cara
+            if(tmax < 0 || tmin > tmax || tmin > maxT) return -1;
+            return Math.max(tmin, 0);
+        }
+
+        // Puntos dentro del frustum. planes = k planos (a,b,c,d) seguidos; "dentro" es
+        // a·x + b·y + c·z + d >= 0 para todos. Una caja fuera de un plano se descarta entera;
+        // una caja dentro de un plano deja de probarlo en todo su subárbol (máscara por nodo),
+        // y si ya no queda ninguno se aceptan todos sus puntos sin más pruebas.
+        // Escribe hasta out.length referencias y devuelve el total encontrado.
+        public int queryFrustum(double[] planes,double[][] out){
+            return queryFrustum(planes, out, CURSOR.get());
+        }
+
+        public int queryFrustum(double[] planes,double[][] out,Cursor cur){
+            Node[] stack = cur.stack; int[] stackMask = cur.stackMask;
+            int k = planes.length / 4;
+            if(planes.length % 4 != 0 || k > 31) throw new IllegalArgumentException("planes must be up to 31 (a,b,c,d) groups");
+            int count = 0, sp = 0;
+            stack[sp] = root; stackMask[sp++] = (1 << k) - 1;
+            while(sp > 0){
+                Node n = stack[--sp];
+                int mask = stackMask[sp];
+                boolean outside = false;
+                for(int i=0;i<k && !outside;i++){
+                    if((mask & (1 << i)) == 0) continue;
+                    double a=planes[4*i], b=planes[4*i+1], c=planes[4*i+2], d=planes[4*i+3];
+                    double s = a*n.box.cx + b*n.box.cy + c*n.box.cz + d;
+                    double r = n.box.hx*Math.abs(a) + n.box.hy*Math.abs(b) + n.box.hz*Math.abs(c);
+                    if(s < -r) outside = true;          // caja entera fuera de este plano
+                    else if(s >= r) mask &= ~(1 << i);  // entera dentro: no volver a probarlo
+                }
+                if(outside) continue;
+                if(!n.divided){
+                    for(double[] p : n.points){
+                        if(mask != 0 && !insidePlanes(planes, mask, k, p)) continue;
+                        if(count < out.length) out[count] = p;
+                        count++;
+                    }
+                    continue;
+                }
+                if(sp + 8 > stack.length){ cur.grow(); stack = cur.stack; stackMask = cur.stackMask; }
+                for(Node c : n.child){ stack[sp] = c; stackMask[sp++] = mask; }
+            }
+            return count;
+        }
+
+        private static boolean insidePlanes(double[] planes,int mask,int k,double[] p){
+            for(int i=0;i<k;i++){
+                if((mask & (1 << i)) == 0) continue;
+                if(planes[4*i]*p[0] + planes[4*i+1]*p[1] + planes[4*i+2]*p[2] + planes[4*i+3] < 0) return false;
+            }
+            return true;
+        }
+
         public String dump(){ StringBuilder sb=new StringBuilder(); dump(root,0,sb); return sb.toString(); }
         private void dump(Node n,int d,StringBuilder sb){
             if(n==null) return;
@@ -102,5 +388,137 @@ public class OctreeDemo10C {
 
         System.out.println("Query AABB3D c=(0,0,0), h=(6,6,6):");
         for(double[] p : oct.queryRange(0,0,0, 6,6,6)) System.out.println(Arrays.toString(p));
+
+        double[] hit = new double[3];
+        double[] target = oct.queryRange(0,0,0, 6,6,6).get(0); // apuntar a la altura (y,z) de un punto conocido
+        double t = oct.raycast(-20,target[1]+0.3,target[2], 1,0,0, 100, 0.5, hit);
+        System.out.println("\nRaycast desde (-20," + (target[1]+0.3) + "," + target[2] + ") hacia +x, radio 0.5: t=" + t + " punto=" + Arrays.toString(hit));
+
+        double[][] seen = new double[64][];
+        int c = oct.queryFrustum(frustumAlongX(-20,0,0, 0.25, 1, 40), seen);
+        System.out.println("Frustum desde (-20,0,0) mirando a +x (tan(fov/2)=0.25, near=1, far=40): " + c + " puntos");
+        for(int i=0;i<Math.min(c, seen.length);i++) System.out.println(Arrays.toString(seen[i]));
+
+        System.out.println("\nLOD profundidad 1 (centroide x,y,z, cuenta):");
+        for(double[] r : oct.lod(1)) System.out.println(Arrays.toString(r));
+        System.out.println("countRange c=(0,0,0), h=(6,6,6): " + oct.countRange(0,0,0, 6,6,6));
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        benchmark(n);
+        // El benchmark de construcción (>= 1M puntos) es lento: solo corre con un segundo argumento
+        if(args.length > 1) benchmarkBuild(Integer.parseInt(args[1]));
+    }
+
+    // ===== BENCHMARK: build paralelo vs. inserciones, y densidad con resúmenes =====
+    static void benchmarkBuild(int n) {
+        Random rnd = new Random(3);
+        double[] xs = new double[n], ys = new double[n], zs = new double[n];
+        for(int i=0;i<n;i++){ xs[i]=rnd.nextGaussian()*100; ys[i]=rnd.nextGaussian()*100; zs[i]=rnd.nextGaussian()*30; }
+        for(int i=0;i<n;i++){ xs[i]=Math.max(-499,Math.min(499,xs[i])); ys[i]=Math.max(-499,Math.min(499,ys[i])); zs[i]=Math.max(-499,Math.min(499,zs[i])); }
+        long t0 = System.nanoTime();
+        Octree seq = new Octree(0,0,0, 500,500,500, 16);
+        for(int i=0;i<n;i++) seq.insert(xs[i],ys[i],zs[i]);
+        long insertMs = (System.nanoTime()-t0)/1_000_000;
+        Octree par = null;
+        long buildMs = 0;
+        for(int rep=0; rep<2; rep++){ // 1.ª vuelta: calentamiento JIT
+            t0 = System.nanoTime();
+            par = Octree.build(xs,ys,zs, 0,0,0, 500,500,500, 16);
+            buildMs = (System.nanoTime()-t0)/1_000_000;
+        }
+        t0 = System.nanoTime();
+        long viaQuery = 0;
+        for(int i=0;i<200;i++) viaQuery += par.queryRange(0,0,0, 50+i,50+i,20+i).size();
+        long queryMs = (System.nanoTime()-t0)/1_000_000;
+        t0 = System.nanoTime();
+        long viaCount = 0;
+        for(int i=0;i<200;i++) viaCount += par.countRange(0,0,0, 50+i,50+i,20+i);
+        long countMs = (System.nanoTime()-t0)/1_000_000;
+        System.out.printf("%n[%,d puntos, %d hilos] insert 1 a 1: %d ms | build paralelo: %d ms (size %,d / %,d)%n",
+                n, ForkJoinPool.commonPool().getParallelism(), insertMs, buildMs, par.size(), seq.size());
+        System.out.printf("200 consultas de densidad: queryRange().size() %d ms (%,d) | countRange con resúmenes %d ms (%,d) | LOD prof. 3: %d celdas%n",
+                queryMs, viaQuery, countMs, viaCount, par.lod(3).size());
+    }
+
+    // Frustum de una cámara en (ex,ey,ez) mirando hacia +x, con pirámide cuadrada de
+    // semiapertura atan(tanHalf). Planos (a,b,c,d) con el interior en a·x+b·y+c·z+d >= 0.
+    static double[] frustumAlongX(double ex,double ey,double ez,double tanHalf,double near,double far){
+        return new double[]{
+                1, 0, 0, -(ex + near),                        // near: x >= ex + near
+               -1, 0, 0,  ex + far,                           // far:  x <= ex + far
+                tanHalf, -1, 0, -tanHalf*ex + ey,             // y - ey <= tanHalf·(x - ex)
+                tanHalf,  1, 0, -tanHalf*ex - ey,             // ey - y <= tanHalf·(x - ex)
+                tanHalf, 0, -1, -tanHalf*ex + ez,             // z - ez <= tanHalf·(x - ex)
+                tanHalf, 0,  1, -tanHalf*ex - ez              // ez - z <= tanHalf·(x - ex)
+        };
+    }
+
+    // ===== BENCHMARK: raycast / queryFrustum vs. fuerza bruta =====
+    static void benchmark(int n) {
+        Random rnd = new Random(11);
+        Octree oct = new Octree(0,0,0, 500,500,500, 16);
+        double[] xs = new double[n], ys = new double[n], zs = new double[n];
+        for(int i=0;i<n;i++){
+            xs[i] = rnd.nextDouble()*1000 - 500; ys[i] = rnd.nextDouble()*1000 - 500; zs[i] = rnd.nextDouble()*1000 - 500;
+            oct.insert(xs[i], ys[i], zs[i]);
+        }
+        int rays = 20_000, frustums = 500;
+        double[][] ray = new double[rays][];
+        for(int i=0;i<rays;i++){
+            ray[i] = new double[]{ rnd.nextDouble()*1000-500, rnd.nextDouble()*1000-500, rnd.nextDouble()*1000-500,
+                    rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian() };
+        }
+        double[][] cam = new double[frustums][];
+        for(int i=0;i<frustums;i++) cam[i] = frustumAlongX(rnd.nextDouble()*800-500, rnd.nextDouble()*800-400, rnd.nextDouble()*800-400, 0.2, 1, 150);
+        double[] hit = new double[3];
+        double[][] buf = new double[n][];
+        Octree.Cursor cur = new Octree.Cursor(); // estado de recorrido de este hilo, reutilizado
+        for(int rep=0; rep<2; rep++){ // 1.ª vuelta: calentamiento JIT
+            long hits = 0, bruteHits = 0, seen = 0, bruteSeen = 0;
+            long t0 = System.nanoTime();
+            for(double[] r : ray) if(oct.raycast(r[0],r[1],r[2], r[3],r[4],r[5], 300, 2, hit, cur) >= 0) hits++;
+            long rayNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(int i=0;i<rays/20;i++) if(bruteRay(xs,ys,zs, ray[i], 300, 2) >= 0) bruteHits++;
+            long bruteRayNs = (System.nanoTime() - t0) * 20;
+            t0 = System.nanoTime();
+            for(double[] f : cam) seen += oct.queryFrustum(f, buf, cur);
+            long frNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for(double[] f : cam) bruteSeen += bruteFrustum(xs,ys,zs, f);
+            long bruteFrNs = System.nanoTime() - t0;
+            if(rep==1){
+                System.out.printf("%n[%,d puntos] raycast: %,.0f rayos/s (%,d impactos) | fuerza bruta: %,.0f rayos/s (%,d impactos en %,d rayos)%n",
+                        n, rays / (rayNs / 1e9), hits, rays / (bruteRayNs / 1e9), bruteHits, rays / 20);
+                System.out.printf("queryFrustum: %,.0f frustums/s (%,d puntos) | fuerza bruta: %,.0f frustums/s (%,d puntos)%n",
+                        frustums / (frNs / 1e9), seen, frustums / (bruteFrNs / 1e9), bruteSeen);
+            }
+        }
+    }
+
+    private static double bruteRay(double[] xs,double[] ys,double[] zs,double[] r,double maxDist,double radius){
+        double len = Math.sqrt(r[3]*r[3] + r[4]*r[4] + r[5]*r[5]);
+        double dx=r[3]/len, dy=r[4]/len, dz=r[5]/len, best = -1, r2 = radius*radius;
+        for(int i=0;i<xs.length;i++){
+            double wx=xs[i]-r[0], wy=ys[i]-r[1], wz=zs[i]-r[2];
+            double t = wx*dx + wy*dy + wz*dz, perp2 = wx*wx + wy*wy + wz*wz - t*t;
+            if(perp2 > r2) continue;
+            double half = Math.sqrt(r2 - perp2);
+            double h = t - half >= 0 ? t - half : (t + half >= 0 ? 0 : -1);
+            if(h >= 0 && h <= maxDist && (best < 0 || h < best)) best = h;
+        }
+        return best;
+    }
+
+    private static int bruteFrustum(double[] xs,double[] ys,double[] zs,double[] planes){
+        int c = 0;
+        outer:
+        for(int i=0;i<xs.length;i++){
+            for(int p=0;p<planes.length;p+=4){
+                if(planes[p]*xs[i] + planes[p+1]*ys[i] + planes[p+2]*zs[i] + planes[p+3] < 0) continue outer;
+            }
+            c++;
+        }
+        return c;
     }
 }
@@ -0,0 +1,147 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Arrays;
+
+/**
+ * n.º 9C — Segment Tree persistente (path copying) para consultas por versión.
+ * Cada actualización puntual copia solo los O(log n) nodos del camino raíz→hoja
+ * y devuelve una versión nueva; los nodos no tocados se comparten con la versión
+ * anterior, que sigue siendo consultable ("suma en [L, R] tal como estaba en la versión v").
+ *
+ * Los nodos viven en arreglos primitivos (pool): left[], right[], sum[] indexados
+ * por id de nodo, sin un objeto por nodo.
+ *
+ * Complejidades: build O(n) nodos, update O(log n) tiempo y memoria, query O(log n).
+ */
+public class PersistentSegmentTreeDemo9C {
+
+    static class PersistentSegmentTree {
+        private final int n;     // tamaño lógico del arreglo
+        // ----- Pool de nodos -----
+        private int[] left;      // id del hijo izquierdo (-1 en hojas)
+        private int[] right;     // id del hijo derecho (-1 en hojas)
+        private long[] sum;      // suma del segmento
+        private int nodes;       // nodos usados del pool
+        // ----- Versiones -----
+        private int[] roots;     // roots[v] = id de la raíz de la versión v
+        private int versions;
+
+        public PersistentSegmentTree(int[] arr) {
+            if (arr.length == 0) throw new IllegalArgumentException("empty array");
+            this.n = arr.length;
+            int initial = 2 * n - 1; // nodos de la versión 0
+            this.left = new int[initial];
+            this.right = new int[initial];
+            this.sum = new long[initial];
+            this.roots = new int[8];
+            roots[versions++] = build(arr, 0, n - 1);
+        }
+
+        private int build(int[] a, int l, int r) {
+            if (l == r) return newNode(-1, -1, a[l]);
+            int m = (l + r) >>> 1;
+            int lc = build(a, l, m);
+            int rc = build(a, m + 1, r);
+            return newNode(lc, rc, sum[lc] + sum[rc]);
+        }
+
+        /** Número de versiones (la 0 es la inicial). */
+        public int versionCount() { return versions; }
+
+        /** Nodos creados en total (para ver el crecimiento O(log n) por actualización). */
+        public int nodeCount() { return nodes; }
+
+        /** Suma en rango [L, R] inclusive, según la versión 'version'. */
+        public long rangeSum(int version, int L, int R) {
+            checkVersion(version);
+            if (L < 0 || R >= n || L > R) throw new IllegalArgumentException();
+            return query(roots[version], 0, n - 1, L, R);
+        }
+
+        /** a[idx] = newVal sobre 'version'; devuelve el número de la versión nueva. */
+        public int pointSet(int version, int idx, long newVal) {
+            checkVersion(version);
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            return addVersion(update(roots[version], 0, n - 1, idx, newVal, true));
+        }
+
+        /** a[idx] += delta sobre 'version'; devuelve el número de la versión nueva. */
+        public int pointAdd(int version, int idx, long delta) {
+            checkVersion(version);
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            return addVersion(update(roots[version], 0, n - 1, idx, delta, false));
+        }
+
+        // ----- Internos -----
+        private long query(int p, int l, int r, int L, int R) {
+            if (R < l || r < L) return 0L;     // fuera
+            if (L <= l && r <= R) return sum[p]; // completamente dentro
+            int m = (l + r) >>> 1;
+            return query(left[p], l, m, L, R) + query(right[p], m + 1, r, L, R);
+        }
+
+        /** Copia el camino hasta la hoja idx; el resto de hijos se comparte. */
+        private int update(int p, int l, int r, int idx, long v, boolean assign) {
+            if (l == r) return newNode(-1, -1, assign ? v : sum[p] + v);
+            int m = (l + r) >>> 1;
+            int lc = left[p], rc = right[p];
+            if (idx <= m) lc = update(lc, l, m, idx, v, assign);
+            else rc = update(rc, m + 1, r, idx, v, assign);
+            return newNode(lc, rc, sum[lc] + sum[rc]);
+        }
+
+        private int newNode(int lc, int rc, long s) {
+            if (nodes == sum.length) { // crecer el pool ×1.5
+                int cap = sum.length + (sum.length >> 1) + 1;
+                left = Arrays.copyOf(left, cap);
+                right = Arrays.copyOf(right, cap);
+                sum = Arrays.copyOf(sum, cap);
+            }
+            left[nodes] = lc;
+            right[nodes] = rc;
+            sum[nodes] = s;
+            return nodes++;
+        }
+
+        private int addVersion(int root) {
+            if (versions == roots.length) roots = Arrays.copyOf(roots, versions * 2);
+            roots[versions] = root;
+            return versions++;
+        }
+
+        private void checkVersion(int version) {
+            if (version < 0 || version >= versions) throw new IllegalArgumentException("version: " + version);
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        int[] arr = {5, -3, 7, 2, 9, 1, 4}; // n = 7
+        System.out.println("Array base (v0): " + Arrays.toString(arr));
+
+        PersistentSegmentTree pst = new PersistentSegmentTree(arr);
+        int v0 = 0;
+        System.out.println("nodos v0: " + pst.nodeCount()); // 2n - 1 = 13
+
+        int v1 = pst.pointAdd(v0, 1, 5);   // arr[1]: -3 → 2
+        int v2 = pst.pointSet(v1, 4, 0);   // arr[4]:  9 → 0
+        int v3 = pst.pointSet(v0, 0, 100); // rama alternativa desde v0
+
+        System.out.println("sum(0, 3) @v0 = " + pst.rangeSum(v0, 0, 3)); // 11
+        System.out.println("sum(0, 3) @v1 = " + pst.rangeSum(v1, 0, 3)); // 16
+        System.out.println("sum(2, 6) @v1 = " + pst.rangeSum(v1, 2, 6)); // 23
+        System.out.println("sum(2, 6) @v2 = " + pst.rangeSum(v2, 2, 6)); // 14
+        System.out.println("sum(0, 6) @v3 = " + pst.rangeSum(v3, 0, 6)); // 120
+        System.out.println("versiones: " + pst.versionCount() + ", nodos: " + pst.nodeCount()); // 4, 13 + 3·4 = 25
+
+        // Crecimiento de memoria: O(log n) nodos por actualización, no O(n)
+        int n = 1_000_000;
+        PersistentSegmentTree big = new PersistentSegmentTree(new int[n]);
+        int base = big.nodeCount();
+        int v = 0;
+        for (int i = 0; i < 10_000; i++) v = big.pointAdd(v, (i * 7919) % n, 1);
+        System.out.printf("%nn=%,d: 10.000 versiones → %.1f nodos nuevos por versión (copia completa: %,d)%n",
+                n, (big.nodeCount() - base) / 10_000.0, 2 * n - 1);
+        System.out.println("sum(0, n-1) @v_final = " + big.rangeSum(v, 0, n - 1) + ", @v0 = " + big.rangeSum(0, 0, n - 1));
+    }
+}
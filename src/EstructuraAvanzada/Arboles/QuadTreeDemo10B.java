@@ -1,6 +1,8 @@
 package EstructuraAvanzada.Arboles;
 
 import java.util.*;
+import java.util.stream.IntStream;
+import EstructuraAvanzada.Arboles.KDTree2DManualDemo10A.KDTree2D.BatchResult;
 
 public class QuadTreeDemo10B {
 
@@ -100,6 +102,95 @@ public class QuadTreeDemo10B {
             }
         }
 
+        // Vecino más cercano (null si el árbol está vacío)
+        public double[] nearest(double x,double y){
+            List<double[]> r = kNearest(x,y,1);
+            return r.isEmpty() ? null : r.get(0);
+        }
+
+        // k vecinos más cercanos, ordenados por distancia. Best-first: una cola de prioridad
+        // mezcla nodos (clave = distancia mínima a su caja) y puntos (clave = su distancia);
+        // cuando sale un punto ya no puede haber nada más cerca en la cola. Con k <= 0 devuelve
+        // una lista vacía, igual que KDTree2D.kNearest.
+        public List<double[]> kNearest(double x,double y,int k){
+            if(k <= 0) return List.of();
+            ArrayList<double[]> out = new ArrayList<>(k);
+            PriorityQueue<Entry> pq = new PriorityQueue<>();
+            pq.add(new Entry(boxDist2(root.box,x,y), root, null));
+            while(!pq.isEmpty() && out.size() < k){
+                Entry e = pq.poll();
+                if(e.point != null){ out.add(e.point); continue; }
+                Node n = e.node;
+                if(!n.divided){
+                    for(double[] p : n.points){
+                        double dx=p[0]-x, dy=p[1]-y;
+                        pq.add(new Entry(dx*dx + dy*dy, null, p));
+                    }
+                }else{
+                    for(Node c : new Node[]{n.nw, n.ne, n.sw, n.se}) pq.add(new Entry(boxDist2(c.box,x,y), c, null));
+                }
+            }
+            return out;
+        }
+
+        private static final class Entry implements Comparable<Entry> {
+            final double d2; final Node node; final double[] point;
+            Entry(double d2, Node node, double[] point){ this.d2=d2; this.node=node; this.point=point; }
+            @Override public int compareTo(Entry o){ return Double.compare(d2, o.d2); }
+        }
+
+        private static double boxDist2(AABB b,double x,double y){
+            double dx = Math.max(Math.abs(x - b.cx) - b.hw, 0), dy = Math.max(Math.abs(y - b.cy) - b.hh, 0);
+            return dx*dx + dy*dy;
+        }
+
+        // ----- Consultas de rango en lote -----
+        private static final int BATCH_CHUNK = 256; // consultas por tarea paralela
+
+        // Muchas consultas AABB (cx[i],cy[i],hw[i],hh[i]) repartidas en el ForkJoinPool común;
+        // el resultado es el mismo BatchResult (CSR) que devuelve KDTree2D.radiusBatch.
+        // Cada bloque escribe en un buffer primitivo propio y al final todo se copia a un único
+        // double[] compartido: sin listas ni double[] nuevos por consulta. Lectura pura: no
+        // mezclar con insert concurrente.
+        public BatchResult queryRangeBatch(double[] cx,double[] cy,double[] hw,double[] hh){
+            int q = cx.length;
+            if(cy.length != q || hw.length != q || hh.length != q) throw new IllegalArgumentException("query arrays length mismatch");
+            int chunks = (q + BATCH_CHUNK - 1) / BATCH_CHUNK;
+            int[] counts = new int[q];
+            double[][] chunkBuf = new double[chunks][];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                double[][] buf = { new double[64] };
+                int used = 0;
+                for(int i = c * BATCH_CHUNK, end = Math.min(q, (c + 1) * BATCH_CHUNK); i < end; i++){
+                    int before = used;
+                    used = queryInto(root, cx[i]-hw[i], cy[i]-hh[i], cx[i]+hw[i], cy[i]+hh[i], buf, used);
+                    counts[i] = (used - before) / 2;
+                }
+                chunkBuf[c] = buf[0];
+            });
+            return KDTree2DManualDemo10A.KDTree2D.assembleBatch(counts, chunkBuf, BATCH_CHUNK, null);
+        }
+
+        // Igual que query() pero con la caja como min/max y añadiendo x,y a buf[0] (que crece si hace falta)
+        private static int queryInto(Node n,double xmin,double ymin,double xmax,double ymax,double[][] buf,int used){
+            AABB b = n.box;
+            if(b.cx + b.hw < xmin || b.cx - b.hw > xmax || b.cy + b.hh < ymin || b.cy - b.hh > ymax) return used;
+            if(!n.divided){
+                for(double[] p : n.points){
+                    if(p[0] >= xmin && p[0] <= xmax && p[1] >= ymin && p[1] <= ymax){
+                        if(used + 2 > buf[0].length) buf[0] = Arrays.copyOf(buf[0], buf[0].length * 2);
+                        buf[0][used++] = p[0];
+                        buf[0][used++] = p[1];
+                    }
+                }
+                return used;
+            }
+            used = queryInto(n.nw,xmin,ymin,xmax,ymax,buf,used);
+            used = queryInto(n.ne,xmin,ymin,xmax,ymax,buf,used);
+            used = queryInto(n.sw,xmin,ymin,xmax,ymax,buf,used);
+            return queryInto(n.se,xmin,ymin,xmax,ymax,buf,used);
+        }
+
         public String dump(){ StringBuilder sb=new StringBuilder(); dump(root,0,sb); return sb.toString(); }
         private void dump(Node n,int d,StringBuilder sb){
             if(n==null) return;
@@ -126,5 +217,40 @@ public class QuadTreeDemo10B {
 
         System.out.println("\nQuery Círculo c=(3,3), r=6:");
         for(double[] p : qt.queryCircle(3,3,6)) System.out.println(Arrays.toString(p));
+
+        System.out.println("\nNearest a (0.5, 0.5): " + Arrays.toString(qt.nearest(0.5,0.5)));
+        System.out.println("kNN (k=3) de (0.5, 0.5):");
+        for(double[] p : qt.kNearest(0.5,0.5,3)) System.out.println(Arrays.toString(p));
+
+        BatchResult br = qt.queryRangeBatch(new double[]{0,-10}, new double[]{0,10}, new double[]{5,3}, new double[]{5,3});
+        System.out.println("\nLote: consulta 0 -> " + br.count(0) + " puntos, consulta 1 -> " + br.count(1) + " puntos");
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 500_000);
+    }
+
+    // ===== BENCHMARK: queryRange una a una vs. queryRangeBatch =====
+    static void benchmark(int n) {
+        Random rnd = new Random(7);
+        QuadTree qt = new QuadTree(500,500,500,500,8);
+        for(int i=0;i<n;i++) qt.insert(rnd.nextDouble()*1000, rnd.nextDouble()*1000);
+        int q = 100_000;
+        double[] cx = new double[q], cy = new double[q], hw = new double[q], hh = new double[q];
+        for(int i=0;i<q;i++){ cx[i]=rnd.nextDouble()*1000; cy[i]=rnd.nextDouble()*1000; hw[i]=hh[i]=3; }
+        for(int rep=0; rep<2; rep++){ // 1.ª vuelta: calentamiento JIT
+            long t0 = System.nanoTime();
+            long single = 0;
+            for(int i=0;i<q;i++) single += qt.queryRange(cx[i],cy[i],hw[i],hh[i]).size();
+            long oneMs = (System.nanoTime()-t0)/1_000_000;
+            t0 = System.nanoTime();
+            BatchResult br = qt.queryRangeBatch(cx,cy,hw,hh);
+            long batchMs = (System.nanoTime()-t0)/1_000_000;
+            t0 = System.nanoTime();
+            for(int i=0;i<10_000;i++) qt.kNearest(cx[i],cy[i],10);
+            long knnMs = (System.nanoTime()-t0)/1_000_000;
+            if(rep==1){
+                System.out.printf("%n[%,d puntos, %,d consultas, %d hilos] queryRange 1 a 1: %d ms (%,d) | queryRangeBatch: %d ms (%,d) | 10k kNearest(10): %d ms%n",
+                        n, q, java.util.concurrent.ForkJoinPool.commonPool().getParallelism(), oneMs, single, batchMs, br.offsets[q], knnMs);
+            }
+        }
     }
 }
@@ -0,0 +1,268 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.*;
+
+/**
+ * n.º 8B — Radix Trie (Patricia / trie con compresión de caminos).
+ * Variante de TrieManualDemo8.Trie donde cada arista guarda una subcadena
+ * en lugar de un solo carácter: las cadenas de nodos con un único hijo se
+ * colapsan en un solo nodo (ideal para URLs o rutas de archivos largas).
+ *
+ * Funciones: insert (divide aristas), contains, startsWith, delete (vuelve a
+ * fusionar aristas), countWords, countPrefixes, wordsWithPrefix.
+ *
+ * Complejidades (L = longitud de la cadena):
+ *  - insert / contains / delete / countPrefixes: O(L).
+ *  - Nodos: O(número de palabras) en lugar de O(total de caracteres).
+ */
+public class RadixTrieManualDemo8B {
+
+    static class RadixTrie {
+        private static final class Node {
+            String label;        // etiqueta de la arista que entra a este nodo ("" en la raíz)
+            Map<Character, Node> next = new HashMap<>(); // clave = primer carácter de la etiqueta del hijo
+            boolean isWord;      // marca fin de palabra
+            int pass;            // cuántas palabras pasan por este nodo (prefijos)
+            Node(String label) { this.label = label; }
+        }
+
+        private final Node root = new Node("");
+        private int words; // número de palabras distintas almacenadas
+
+        /** Inserta palabra; devuelve false si ya existía (no altera los contadores). */
+        public boolean insert(String word) {
+            Objects.requireNonNull(word, "word");
+            if (contains(word)) return false; // así 'pass' cuenta palabras distintas
+            Node x = root;
+            x.pass++;
+            int i = 0;
+            while (i < word.length()) {
+                char ch = word.charAt(i);
+                Node child = x.next.get(ch);
+                if (child == null) {
+                    // No hay arista: el resto de la palabra cuelga como una sola hoja
+                    Node leaf = new Node(word.substring(i));
+                    leaf.isWord = true;
+                    leaf.pass = 1;
+                    x.next.put(ch, leaf);
+                    words++;
+                    return true;
+                }
+                int common = commonPrefix(child.label, word, i);
+                if (common < child.label.length()) {
+                    // La palabra diverge (o termina) a mitad de la arista: dividirla
+                    Node mid = new Node(child.label.substring(0, common));
+                    mid.pass = child.pass;
+                    child.label = child.label.substring(common);
+                    mid.next.put(child.label.charAt(0), child);
+                    x.next.put(ch, mid);
+                    child = mid;
+                }
+                child.pass++;
+                x = child;
+                i += common;
+            }
+            x.isWord = true;
+            words++;
+            return true;
+        }
+
+        /** ¿Existe la palabra exacta? */
+        public boolean contains(String word) {
+            Node x = walk(word, true);
+            return x != null && x.isWord;
+        }
+
+        /** ¿Existe alguna palabra que comience con el prefijo? */
+        public boolean startsWith(String prefix) {
+            return walk(prefix, false) != null;
+        }
+
+        /** Elimina una palabra exacta si existe. Devuelve true si la borró. */
+        public boolean delete(String word) {
+            if (!contains(word)) return false;
+            deleteRec(root, word, 0);
+            words--;
+            return true;
+        }
+
+        private boolean deleteRec(Node node, String w, int i) {
+            node.pass--;
+            if (i == w.length()) {
+                node.isWord = false;
+                // Sin palabras debajo: el padre debe quitar la arista
+                return node.pass == 0;
+            }
+            char ch = w.charAt(i);
+            Node child = node.next.get(ch);
+            boolean removeChild = deleteRec(child, w, i + child.label.length());
+            if (removeChild) node.next.remove(ch);
+            else mergeWithOnlyChild(child);
+            // borrar este nodo si no es raíz y ya no queda ninguna palabra debajo
+            return node.pass == 0 && node != root;
+        }
+
+        /** Si 'n' quedó sin palabra y con un solo hijo, absorbe la arista del hijo. */
+        private void mergeWithOnlyChild(Node n) {
+            if (n.isWord || n.next.size() != 1) return;
+            Node only = n.next.values().iterator().next();
+            n.label = n.label + only.label;
+            n.next = only.next;
+            n.isWord = only.isWord;
+            // n.pass == only.pass porque n no es palabra y tiene un solo hijo
+        }
+
+        /** Número de palabras almacenadas. */
+        public int size() { return words; }
+
+        /** Número de palabras que tienen el prefijo dado. O(|prefix|). */
+        public int countPrefixes(String prefix) {
+            Node x = walk(prefix, false);
+            return x == null ? 0 : x.pass;
+        }
+
+        /** Devuelve hasta 'limit' sugerencias que comienzan con 'prefix' (lexicográfico por carácter). */
+        public List<String> wordsWithPrefix(String prefix, int limit) {
+            Objects.requireNonNull(prefix, "prefix");
+            List<String> out = new ArrayList<>();
+            if (limit <= 0) return out;
+            Node x = root;
+            StringBuilder sb = new StringBuilder();
+            int i = 0;
+            while (i < prefix.length()) {
+                x = x.next.get(prefix.charAt(i));
+                if (x == null) return out;
+                int m = Math.min(x.label.length(), prefix.length() - i);
+                if (!prefix.regionMatches(i, x.label, 0, m)) return out;
+                sb.append(x.label); // si el prefijo acaba a mitad de arista, completamos la etiqueta
+                i += m;
+            }
+            dfs(x, sb, out, limit);
+            return out;
+        }
+
+        /** Todas las palabras (cuidado: puede ser grande). */
+        public List<String> allWords() {
+            List<String> out = new ArrayList<>(words);
+            dfs(root, new StringBuilder(), out, Integer.MAX_VALUE);
+            return out;
+        }
+
+        /** Número de nodos (incluida la raíz), para comparar memoria con el trie por carácter. */
+        public int nodeCount() { return countNodes(root); }
+
+        // ---- Internos ----
+
+        /**
+         * Recorre 's' desde la raíz. Con exact=true solo devuelve un nodo si 's'
+         * termina justo al final de una arista; con exact=false también acepta
+         * terminar a mitad de arista (devuelve el nodo al que lleva esa arista).
+         */
+        private Node walk(String s, boolean exact) {
+            Objects.requireNonNull(s, "string");
+            Node x = root;
+            int i = 0;
+            while (i < s.length()) {
+                Node child = x.next.get(s.charAt(i));
+                if (child == null) return null;
+                String label = child.label;
+                int m = Math.min(label.length(), s.length() - i);
+                if (!s.regionMatches(i, label, 0, m)) return null;
+                i += m;
+                if (m < label.length()) return exact ? null : child;
+                x = child;
+            }
+            return x;
+        }
+
+        private static int commonPrefix(String label, String w, int from) {
+            int max = Math.min(label.length(), w.length() - from);
+            int k = 0;
+            while (k < max && label.charAt(k) == w.charAt(from + k)) k++;
+            return k;
+        }
+
+        private void dfs(Node node, StringBuilder path, List<String> out, int limit) {
+            if (out.size() >= limit) return;
+            if (node.isWord) {
+                out.add(path.toString());
+                if (out.size() >= limit) return;
+            }
+            // Para orden determinista, iteramos claves ordenadas
+            List<Character> ks = new ArrayList<>(node.next.keySet());
+            Collections.sort(ks);
+            for (char ch : ks) {
+                Node child = node.next.get(ch);
+                int len = path.length();
+                path.append(child.label);
+                dfs(child, path, out, limit);
+                path.setLength(len);
+                if (out.size() >= limit) return;
+            }
+        }
+
+        private int countNodes(Node n) {
+            int c = 1;
+            for (Node ch : n.next.values()) c += countNodes(ch);
+            return c;
+        }
+
+        public String toPretty() { StringBuilder sb = new StringBuilder(); pretty(root, 0, sb); return sb.toString(); }
+        private void pretty(Node n, int d, StringBuilder sb) {
+            sb.append("  ".repeat(d)).append("- \"").append(n.label).append("\"")
+              .append(" pass=").append(n.pass).append(n.isWord ? " *" : "").append("\n");
+            List<Character> ks = new ArrayList<>(n.next.keySet());
+            Collections.sort(ks);
+            for (char ch : ks) pretty(n.next.get(ch), d + 1, sb);
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        RadixTrie trie = new RadixTrie();
+
+        // Inserciones
+        trie.insert("hola");
+        trie.insert("hola"); // duplicada (no cambia contadores)
+        trie.insert("holanda");
+        trie.insert("holístico");
+        trie.insert("hondo");
+        trie.insert("honor");
+        trie.insert("hoja");
+        trie.insert("hotel");
+        trie.insert("bot");
+        trie.insert("bota");
+        trie.insert("botón");
+
+        System.out.println("size (palabras distintas): " + trie.size()); // esperado: 10
+        System.out.println("nodos: " + trie.nodeCount());
+        System.out.println(trie.toPretty());
+
+        // contains / startsWith / countPrefixes
+        System.out.println("contains('hola'): " + trie.contains("hola"));       // true
+        System.out.println("contains('hol'): " + trie.contains("hol"));         // false (mitad de arista)
+        System.out.println("startsWith('holan'): " + trie.startsWith("holan")); // true
+        System.out.println("countPrefixes('ho'): " + trie.countPrefixes("ho")); // 7
+        System.out.println("countPrefixes('hon'): " + trie.countPrefixes("hon")); // 2
+
+        // Autocompletado (el prefijo puede acabar a mitad de una arista)
+        System.out.println("\nAutocomplete 'hol' (lim=6): " + trie.wordsWithPrefix("hol", 6));
+        System.out.println("Autocomplete 'bo' (lim=5): " + trie.wordsWithPrefix("bo", 5));
+
+        // Borrado: las aristas se vuelven a fusionar
+        System.out.println("\ndelete('hondo'): " + trie.delete("hondo")); // true → "n"+"or" se fusionan
+        System.out.println("delete('hola'): " + trie.delete("hola"));     // true
+        System.out.println("delete('hola'): " + trie.delete("hola"));     // false
+        System.out.println("size: " + trie.size() + ", nodos: " + trie.nodeCount());
+        System.out.println(trie.toPretty());
+
+        // Rutas largas: un solo nodo por tramo no compartido
+        RadixTrie paths = new RadixTrie();
+        paths.insert("/usr/local/lib/java/jdk-17/bin/java");
+        paths.insert("/usr/local/lib/java/jdk-17/bin/javac");
+        paths.insert("/usr/local/lib/python3/site-packages");
+        System.out.println("Rutas -> nodos: " + paths.nodeCount()
+                + ", countPrefixes('/usr/local/lib/j'): " + paths.countPrefixes("/usr/local/lib/j"));
+        System.out.println(paths.toPretty());
+    }
+}
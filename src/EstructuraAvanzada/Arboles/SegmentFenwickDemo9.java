@@ -1,82 +1,204 @@
 package EstructuraAvanzada.Arboles;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * n.º 9 — Segment Tree / Fenwick Tree (BIT)
  * Árboles para consultas por rango y actualizaciones en arreglos.
  *
  * Este archivo incluye:
- *  - SegmentTree: soporte para sumas por rango y actualización puntual.
+ *  - SegmentTree: sumas/mín/máx por rango, actualización puntual y por rango
+ *    (rangeAdd / rangeAssign con propagación perezosa).
  *  - FenwickTree (BIT): sumas prefix/rango y actualización puntual.
+ *  - rangeSumBatch (ambos): muchas consultas de golpe, ordenadas por L para
+ *    recorrer memoria con localidad y repartidas entre hilos; si el lote es grande
+ *    frente a n, se materializan las sumas prefijo en O(n) y cada consulta es O(1).
  *
  * Complejidades:
- *  - SegmentTree: build O(n), query O(log n), update O(log n).
- *  - FenwickTree: build O(n), prefix O(log n), update O(log n).
+ *  - SegmentTree: build O(n), query O(log n), update puntual o por rango O(log n).
+ *  - FenwickTree: build O(n) (en paralelo con parallelPrefix si n es grande), prefix O(log n), update O(log n).
+ *  - rangeSumBatch con q consultas: O(min(q log n, n + q)).
  */
 public class SegmentFenwickDemo9 {
 
-    /* ===================== SEGMENT TREE (Sumas) ===================== */
+    /* ===================== SEGMENT TREE (Sumas / Min / Max + Lazy) ===================== */
     static class SegmentTree {
         private final int n;      // tamaño lógico del arreglo
-        private final long[] st;  // árbol de segmentos (potencia de 2 interna)
+        private final long[] st;  // sumas por nodo
+        private final long[] mn;  // mínimo por nodo
+        private final long[] mx;  // máximo por nodo
+        // Etiqueta lazy pendiente de empujar a los hijos:
+        //  hasSet[p] → "asignar tag[p] a todo el segmento"; si no → "sumar tag[p]"
+        // (asignar v y luego sumar d equivale a asignar v + d, así basta una etiqueta)
+        private final long[] tag;
+        private final boolean[] hasSet;
 
         public SegmentTree(int[] arr) {
             this.n = arr.length;
             // tamaño máximo ~ 4n para almacenamiento seguro
-            this.st = new long[4 * Math.max(1, n)];
+            int size = 4 * Math.max(1, n);
+            this.st = new long[size];
+            this.mn = new long[size];
+            this.mx = new long[size];
+            this.tag = new long[size];
+            this.hasSet = new boolean[size];
             if (n > 0) build(arr, 1, 0, n - 1);
         }
 
         private void build(int[] a, int p, int l, int r) {
-            if (l == r) { st[p] = a[l]; return; }
+            if (l == r) { st[p] = mn[p] = mx[p] = a[l]; return; }
             int m = (l + r) >>> 1;
             build(a, p << 1, l, m);
             build(a, p << 1 | 1, m + 1, r);
-            st[p] = st[p << 1] + st[p << 1 | 1];
+            pull(p);
         }
 
         /** Suma en rango [L, R] inclusive. */
         public long rangeSum(int L, int R) {
+            checkRange(L, R);
+            return querySum(1, 0, n - 1, L, R);
+        }
+
+        /** Mínimo en rango [L, R] inclusive. */
+        public long rangeMin(int L, int R) {
+            checkRange(L, R);
+            return queryMin(1, 0, n - 1, L, R);
+        }
+
+        /** Máximo en rango [L, R] inclusive. */
+        public long rangeMax(int L, int R) {
+            checkRange(L, R);
+            return queryMax(1, 0, n - 1, L, R);
+        }
+
+        /** a[i] += delta para todo i en [L, R]. O(log n) con propagación perezosa. */
+        public void rangeAdd(int L, int R, long delta) {
+            checkRange(L, R);
+            update(1, 0, n - 1, L, R, false, delta);
+        }
+
+        /** a[i] = v para todo i en [L, R]. O(log n) con propagación perezosa. */
+        public void rangeAssign(int L, int R, long v) {
+            checkRange(L, R);
+            update(1, 0, n - 1, L, R, true, v);
+        }
+
+        /** Actualización puntual: a[idx] = newVal */
+        public void pointSet(int idx, int newVal) {
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            update(1, 0, n - 1, idx, idx, true, newVal);
+        }
+
+        /** Actualización puntual por delta: a[idx] += delta */
+        public void pointAdd(int idx, int delta) {
+            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
+            update(1, 0, n - 1, idx, idx, false, delta);
+        }
+
+        /**
+         * out[i] = rangeSum(L[i], R[i]) para todo el lote.
+         * Las consultas empujan etiquetas lazy (modifican el árbol), así que aquí no
+         * se reparten entre hilos: con lotes grandes se vuelcan las hojas a un arreglo
+         * de sumas prefijo en O(n) y se responde en paralelo sobre ese arreglo; con
+         * lotes pequeños se resuelven en orden de L.
+         */
+        public void rangeSumBatch(int[] L, int[] R, long[] out) {
+            int q = checkBatch(L, R, out, n);
+            if (q == 0) return;
+            if (preferPrefix(q, n)) {
+                long[] prefix = new long[n + 1];
+                collectLeaves(1, 0, n - 1, prefix); // prefix[i + 1] = a[i]
+                Arrays.parallelPrefix(prefix, Long::sum);
+                answerFromPrefix(prefix, L, R, out);
+                return;
+            }
+            for (int k : sortedByL(L)) out[k] = querySum(1, 0, n - 1, L[k], R[k]);
+        }
+
+        private void collectLeaves(int p, int l, int r, long[] prefix) {
+            if (l == r) { prefix[l + 1] = st[p]; return; }
+            push(p, l, r);
+            int m = (l + r) >>> 1;
+            collectLeaves(p << 1, l, m, prefix);
+            collectLeaves(p << 1 | 1, m + 1, r, prefix);
+        }
+
+        // ----- Internos -----
+        private void checkRange(int L, int R) {
             if (L < 0 || R >= n || L > R) throw new IllegalArgumentException();
-            return query(1, 0, n - 1, L, R);
         }
 
-        private long query(int p, int l, int r, int L, int R) {
+        private void update(int p, int l, int r, int L, int R, boolean assign, long v) {
+            if (R < l || r < L) return;          // fuera
+            if (L <= l && r <= R) {              // completamente dentro: etiqueta y listo
+                if (assign) applySet(p, l, r, v); else applyAdd(p, l, r, v);
+                return;
+            }
+            push(p, l, r);
+            int m = (l + r) >>> 1;
+            update(p << 1, l, m, L, R, assign, v);
+            update(p << 1 | 1, m + 1, r, L, R, assign, v);
+            pull(p);
+        }
+
+        private long querySum(int p, int l, int r, int L, int R) {
             if (R < l || r < L) return 0L;    // fuera
             if (L <= l && r <= R) return st[p]; // completamente dentro
+            push(p, l, r);
             int m = (l + r) >>> 1;
-            long left = query(p << 1, l, m, L, R);
-            long right = query(p << 1 | 1, m + 1, r, L, R);
-            return left + right;
+            return querySum(p << 1, l, m, L, R) + querySum(p << 1 | 1, m + 1, r, L, R);
         }
 
-        /** Actualización puntual: a[idx] = newVal */
-        public void pointSet(int idx, int newVal) {
-            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
-            pointSet(1, 0, n - 1, idx, newVal);
+        private long queryMin(int p, int l, int r, int L, int R) {
+            if (R < l || r < L) return Long.MAX_VALUE;
+            if (L <= l && r <= R) return mn[p];
+            push(p, l, r);
+            int m = (l + r) >>> 1;
+            return Math.min(queryMin(p << 1, l, m, L, R), queryMin(p << 1 | 1, m + 1, r, L, R));
         }
 
-        private void pointSet(int p, int l, int r, int idx, int v) {
-            if (l == r) { st[p] = v; return; }
+        private long queryMax(int p, int l, int r, int L, int R) {
+            if (R < l || r < L) return Long.MIN_VALUE;
+            if (L <= l && r <= R) return mx[p];
+            push(p, l, r);
             int m = (l + r) >>> 1;
-            if (idx <= m) pointSet(p << 1, l, m, idx, v);
-            else pointSet(p << 1 | 1, m + 1, r, idx, v);
-            st[p] = st[p << 1] + st[p << 1 | 1];
+            return Math.max(queryMax(p << 1, l, m, L, R), queryMax(p << 1 | 1, m + 1, r, L, R));
         }
 
-        /** Actualización puntual por delta: a[idx] += delta */
-        public void pointAdd(int idx, int delta) {
-            if (idx < 0 || idx >= n) throw new IllegalArgumentException();
-            pointAdd(1, 0, n - 1, idx, delta);
+        private void applySet(int p, int l, int r, long v) {
+            st[p] = v * (r - l + 1);
+            mn[p] = mx[p] = v;
+            tag[p] = v;      // la asignación anula sumas pendientes
+            hasSet[p] = true;
         }
 
-        private void pointAdd(int p, int l, int r, int idx, int delta) {
-            if (l == r) { st[p] += delta; return; }
+        private void applyAdd(int p, int l, int r, long d) {
+            st[p] += d * (r - l + 1);
+            mn[p] += d;
+            mx[p] += d;
+            tag[p] += d;
+        }
+
+        /** Empuja las etiquetas pendientes de p a sus dos hijos. */
+        private void push(int p, int l, int r) {
             int m = (l + r) >>> 1;
-            if (idx <= m) pointAdd(p << 1, l, m, idx, delta);
-            else pointAdd(p << 1 | 1, m + 1, r, idx, delta);
+            if (hasSet[p]) {
+                applySet(p << 1, l, m, tag[p]);
+                applySet(p << 1 | 1, m + 1, r, tag[p]);
+                hasSet[p] = false;
+            } else if (tag[p] != 0L) {
+                applyAdd(p << 1, l, m, tag[p]);
+                applyAdd(p << 1 | 1, m + 1, r, tag[p]);
+            }
+            tag[p] = 0L;
+        }
+
+        private void pull(int p) {
             st[p] = st[p << 1] + st[p << 1 | 1];
+            mn[p] = Math.min(mn[p << 1], mn[p << 1 | 1]);
+            mx[p] = Math.max(mx[p << 1], mx[p << 1 | 1]);
         }
     }
 
@@ -92,6 +214,7 @@ public class SegmentFenwickDemo9 {
 
         public FenwickTree(int[] arr) {
             this(arr.length);
+            if (n >= PARALLEL_BUILD_MIN) { buildParallel(arr); return; }
             // build O(n) — suma en BIT[i] las contribuciones del rango (i - LSB(i) + 1 .. i)
             for (int i = 1; i <= n; i++) {
                 bit[i] += arr[i - 1];
@@ -123,9 +246,79 @@ public class SegmentFenwickDemo9 {
             add(idx, newVal - currentVal);
         }
 
+        /**
+         * build O(n) sin dependencias entre posiciones: bit[i] = P[i] - P[i - LSB(i)]
+         * con P = sumas prefijo (Arrays.parallelPrefix); cada i se calcula por separado.
+         */
+        private void buildParallel(int[] arr) {
+            long[] prefix = new long[n + 1];
+            for (int i = 0; i < n; i++) prefix[i + 1] = arr[i];
+            Arrays.parallelPrefix(prefix, Long::sum);
+            IntStream.rangeClosed(1, n).parallel().forEach(i -> bit[i] = prefix[i] - prefix[i - (i & -i)]);
+        }
+
+        /**
+         * out[i] = rangeSum(L[i], R[i]) para todo el lote. Las lecturas no modifican
+         * el BIT, así que las consultas (ordenadas por L) se reparten entre hilos; con
+         * lotes grandes se materializan las sumas prefijo en O(n) y cada una es O(1).
+         * No debe haber add() concurrentes durante la llamada.
+         */
+        public void rangeSumBatch(int[] L, int[] R, long[] out) {
+            int q = checkBatch(L, R, out, n);
+            if (q == 0) return;
+            if (preferPrefix(q, n)) {
+                // prefix[i] = suma de a[0..i-1] = bit[i] + prefix[i - LSB(i)]
+                long[] prefix = new long[n + 1];
+                for (int i = 1; i <= n; i++) prefix[i] = bit[i] + prefix[i - (i & -i)];
+                answerFromPrefix(prefix, L, R, out);
+                return;
+            }
+            int[] order = sortedByL(L);
+            IntStream.range(0, (q + BATCH_CHUNK - 1) / BATCH_CHUNK).parallel().forEach(c -> {
+                int end = Math.min(q, (c + 1) * BATCH_CHUNK);
+                for (int i = c * BATCH_CHUNK; i < end; i++) {
+                    int k = order[i];
+                    out[k] = prefixSum(R[k]) - (L[k] == 0 ? 0 : prefixSum(L[k] - 1));
+                }
+            });
+        }
+
         public int size() { return n; }
     }
 
+    /* ===================== CONSULTAS EN LOTE (helpers) ===================== */
+    private static final int PARALLEL_BUILD_MIN = 1 << 16; // por debajo, el build secuencial gana
+    private static final int BATCH_CHUNK = 4_096;          // consultas por tarea paralela
+
+    /** Valida el lote y devuelve su tamaño. */
+    private static int checkBatch(int[] L, int[] R, long[] out, int n) {
+        if (L.length != R.length || out.length < L.length) throw new IllegalArgumentException("batch length mismatch");
+        for (int i = 0; i < L.length; i++) {
+            if (L[i] < 0 || R[i] >= n || L[i] > R[i]) throw new IllegalArgumentException("query " + i);
+        }
+        return L.length;
+    }
+
+    /** ¿Compensa materializar sumas prefijo (O(n)) frente a q consultas de O(log n)? */
+    private static boolean preferPrefix(int q, int n) {
+        int logN = 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+        return (long) q * logN >= n;
+    }
+
+    /** Índices de las consultas ordenados por L (clave empaquetada L·2^32 + i, orden primitivo). */
+    private static int[] sortedByL(int[] L) {
+        long[] keys = new long[L.length];
+        for (int i = 0; i < L.length; i++) keys[i] = ((long) L[i] << 32) | i;
+        Arrays.parallelSort(keys);
+        int[] order = new int[L.length];
+        for (int i = 0; i < L.length; i++) order[i] = (int) keys[i];
+        return order;
+    }
+
+    private static void answerFromPrefix(long[] prefix, int[] L, int[] R, long[] out) {
+        IntStream.range(0, L.length).parallel().forEach(i -> out[i] = prefix[R[i] + 1] - prefix[L[i]]);
+    }
+
     /* ===================== DEMO MAIN ===================== */
     public static void main(String[] args) {
         int[] arr = {5, -3, 7, 2, 9, 1, 4}; // n = 7
@@ -159,7 +352,97 @@ public class SegmentFenwickDemo9 {
         ft.set(4, 9, 0); // si no conoces currentVal, calcula: currentVal = rangeSum(4,4)
         System.out.println("sum(2, 6) = " + ft.rangeSum(2, 6)); // 14
 
-        // Nota: SegmentTree sirve para más operaciones (min, max, gcd, lazy propagation).
+        // ---- Segment Tree: actualizaciones por rango (lazy) ----
+        SegmentTree lz = new SegmentTree(arr); // [5, -3, 7, 2, 9, 1, 4]
+        System.out.println("\n[SegmentTree lazy] rangeAdd [1..4] += 10");
+        lz.rangeAdd(1, 4, 10); // [5, 7, 17, 12, 19, 1, 4]
+        System.out.println("sum(0, 6) = " + lz.rangeSum(0, 6)); // 65
+        System.out.println("min(0, 6) = " + lz.rangeMin(0, 6)); // 1
+        System.out.println("max(1, 3) = " + lz.rangeMax(1, 3)); // 17
+        System.out.println("rangeAssign [3..6] = 2");
+        lz.rangeAssign(3, 6, 2); // [5, 7, 17, 2, 2, 2, 2]
+        System.out.println("sum(2, 5) = " + lz.rangeSum(2, 5)); // 23
+        System.out.println("max(3, 6) = " + lz.rangeMax(3, 6)); // 2
+        lz.rangeAdd(0, 6, -1);   // [4, 6, 16, 1, 1, 1, 1]
+        System.out.println("rangeAdd [0..6] += -1 -> min(0, 6) = " + lz.rangeMin(0, 6) + ", sum(0, 6) = " + lz.rangeSum(0, 6)); // 1, 30
+
+        // Nota: SegmentTree sirve para más operaciones (gcd, combinaciones personalizadas...).
         // El BIT es compacto y muy rápido para sumas y algunas extensiones (rango-update / punto-query, etc.).
+
+        // Benchmark: java SegmentFenwickDemo9 10000000 (por defecto 1000000 elementos)
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        benchmarkRangeAdd(n);
+        benchmarkBatch(n);
+    }
+
+    // ===== BENCHMARK rangeSumBatch vs. consultas una a una =====
+    static void benchmarkBatch(int n) {
+        Random rnd = new Random(7);
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) data[i] = rnd.nextInt(1000);
+
+        long t0 = System.nanoTime();
+        FenwickTree ft = new FenwickTree(data);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        SegmentTree st = new SegmentTree(data);
+
+        for (int q : new int[]{1_000, 2_000_000}) {
+            int[] L = new int[q], R = new int[q];
+            for (int i = 0; i < q; i++) {
+                int a = rnd.nextInt(n), b = rnd.nextInt(n);
+                L[i] = Math.min(a, b);
+                R[i] = Math.max(a, b);
+            }
+            long[] out = new long[q];
+            long check = 0;
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < q; i++) check += ft.rangeSum(L[i], R[i]);
+            long oneByOne = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            ft.rangeSumBatch(L, R, out);
+            long batchFt = System.nanoTime() - t0;
+            for (long v : out) check -= v;
+
+            t0 = System.nanoTime();
+            st.rangeSumBatch(L, R, out);
+            long batchSt = System.nanoTime() - t0;
+            for (long v : out) check += v;
+            for (int i = 0; i < q; i++) check -= st.rangeSum(L[i], R[i]);
+
+            if (check != 0) throw new IllegalStateException("resultados distintos");
+            System.out.printf("[Lote q=%,d, n=%,d] Fenwick 1 a 1: %.1f ms | Fenwick batch: %.1f ms | SegmentTree batch: %.1f ms%n",
+                    q, n, oneByOne / 1e6, batchFt / 1e6, batchSt / 1e6);
+        }
+        System.out.println("FenwickTree build (n=" + n + "): " + buildMs + " ms");
+    }
+
+    // ===== BENCHMARK rangeAdd (lazy) vs. pointAdd repetido =====
+    static void benchmarkRangeAdd(int n) {
+        Random rnd = new Random(42);
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) data[i] = rnd.nextInt(1000);
+        SegmentTree tree = new SegmentTree(data); // un solo árbol: con n = 10M ocupa ~1.3 GB (usar -Xmx4g)
+
+        int ops = 1_000;
+        int[] L = new int[ops], R = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            L[i] = Math.min(a, b);
+            R[i] = Math.max(a, b);
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) tree.rangeAdd(L[i], R[i], 3);
+        long lazyNs = System.nanoTime() - t0;
+
+        int naiveOps = 5; // cada llamada cuesta O(len·log n): pocas bastan para comparar
+        t0 = System.nanoTime();
+        for (int i = 0; i < naiveOps; i++) for (int j = L[i]; j <= R[i]; j++) tree.pointAdd(j, 3);
+        long naiveNs = System.nanoTime() - t0;
+
+        System.out.printf("%n[Benchmark n=%,d] rangeAdd lazy: %.2f µs/op | pointAdd repetido: %.2f ms/op%n",
+                n, lazyNs / 1e3 / ops, naiveNs / 1e6 / naiveOps);
     }
 }
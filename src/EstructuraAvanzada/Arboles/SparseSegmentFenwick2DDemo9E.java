@@ -0,0 +1,163 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * n.º 9E — Fenwick 2D y Segment Tree dinámico (disperso).
+ * Para cuando el espacio de índices no cabe en un arreglo denso:
+ *  - FenwickTree2D: sumas de rectángulos en una rejilla (p. ej. cubeta de tiempo × región).
+ *  - DynamicSegmentTree: claves long arbitrarias (p. ej. timestamps de 64 bits); los nodos
+ *    se crean solo al tocarlos, así la memoria crece con el número de actualizaciones
+ *    (≈ 64 nodos por clave nueva como máximo) y no con el tamaño del rango.
+ *
+ * Complejidades:
+ *  - FenwickTree2D: add / prefixSum / rectSum O(log R · log C), memoria O(R · C).
+ *  - DynamicSegmentTree: add / rangeSum O(log(hi - lo)), memoria O(updates · log(hi - lo)).
+ */
+public class SparseSegmentFenwick2DDemo9E {
+
+    /* ===================== FENWICK TREE 2D ===================== */
+    static class FenwickTree2D {
+        private final int rows, cols;
+        private final long[] bit; // (rows+1) × (cols+1), 1-indexed, aplanado por filas
+
+        public FenwickTree2D(int rows, int cols) {
+            if (rows < 0 || cols < 0) throw new IllegalArgumentException();
+            this.rows = rows;
+            this.cols = cols;
+            this.bit = new long[(rows + 1) * (cols + 1)];
+        }
+
+        /** a[r][c] += delta (0-indexed). */
+        public void add(int r, int c, long delta) {
+            if (r < 0 || r >= rows || c < 0 || c >= cols) throw new IllegalArgumentException();
+            for (int i = r + 1; i <= rows; i += (i & -i)) {
+                int base = i * (cols + 1);
+                for (int j = c + 1; j <= cols; j += (j & -j)) bit[base + j] += delta;
+            }
+        }
+
+        /** Suma del rectángulo [0..r] × [0..c] (0-indexed, inclusivo). */
+        public long prefixSum(int r, int c) {
+            long res = 0L;
+            for (int i = r + 1; i > 0; i -= (i & -i)) {
+                int base = i * (cols + 1);
+                for (int j = c + 1; j > 0; j -= (j & -j)) res += bit[base + j];
+            }
+            return res;
+        }
+
+        /** Suma del rectángulo [r1..r2] × [c1..c2] (inclusión-exclusión). */
+        public long rectSum(int r1, int c1, int r2, int c2) {
+            if (r1 < 0 || c1 < 0 || r2 >= rows || c2 >= cols || r1 > r2 || c1 > c2) throw new IllegalArgumentException();
+            return prefixSum(r2, c2)
+                    - (r1 > 0 ? prefixSum(r1 - 1, c2) : 0)
+                    - (c1 > 0 ? prefixSum(r2, c1 - 1) : 0)
+                    + (r1 > 0 && c1 > 0 ? prefixSum(r1 - 1, c1 - 1) : 0);
+        }
+    }
+
+    /* ===================== SEGMENT TREE DINÁMICO (sumas) ===================== */
+    static class DynamicSegmentTree {
+        private final long lo, hi; // rango de claves [lo, hi]
+        // Pool de nodos; el id 0 es el "nodo vacío" (suma 0, sin hijos)
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private long[] sum = new long[64];
+        private int nodes = 1;
+        private final int root;
+
+        public DynamicSegmentTree(long lo, long hi) {
+            if (lo > hi) throw new IllegalArgumentException();
+            this.lo = lo;
+            this.hi = hi;
+            this.root = newNode();
+        }
+
+        /** Punto medio sin desbordamiento (aritmética sin signo: admite [Long.MIN, Long.MAX]). */
+        private static long mid(long l, long r) { return l + ((r - l) >>> 1); }
+
+        /** a[key] += delta; crea los nodos del camino que aún no existan. */
+        public void add(long key, long delta) {
+            if (key < lo || key > hi) throw new IllegalArgumentException("key out of range: " + key);
+            int p = root;
+            long l = lo, r = hi;
+            while (true) {
+                sum[p] += delta;
+                if (l == r) return;
+                long m = mid(l, r);
+                if (key <= m) {
+                    if (left[p] == 0) { int c = newNode(); left[p] = c; }
+                    p = left[p];
+                    r = m;
+                } else {
+                    if (right[p] == 0) { int c = newNode(); right[p] = c; }
+                    p = right[p];
+                    l = m + 1;
+                }
+            }
+        }
+
+        /** Suma de las claves en [L, R] inclusive. */
+        public long rangeSum(long L, long R) {
+            if (L < lo || R > hi || L > R) throw new IllegalArgumentException();
+            return query(root, lo, hi, L, R);
+        }
+
+        private long query(int p, long l, long r, long L, long R) {
+            if (p == 0 || R < l || r < L) return 0L; // vacío o fuera
+            if (L <= l && r <= R) return sum[p];     // completamente dentro
+            long m = mid(l, r);
+            return query(left[p], l, m, L, R) + query(right[p], m + 1, r, L, R);
+        }
+
+        /** Nodos creados (memoria proporcional a las actualizaciones). */
+        public int nodeCount() { return nodes - 1; }
+
+        private int newNode() {
+            if (nodes == sum.length) {
+                int cap = sum.length * 2;
+                left = Arrays.copyOf(left, cap);
+                right = Arrays.copyOf(right, cap);
+                sum = Arrays.copyOf(sum, cap);
+            }
+            return nodes++;
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        // ---- Fenwick 2D: cubeta horaria × región ----
+        FenwickTree2D grid = new FenwickTree2D(24, 5);
+        grid.add(0, 0, 10);
+        grid.add(3, 2, 7);
+        grid.add(10, 4, 5);
+        grid.add(23, 1, 1);
+        grid.add(3, 4, 2);
+        System.out.println("[FenwickTree2D] rect [0..3]×[0..2] = " + grid.rectSum(0, 0, 3, 2));   // 17
+        System.out.println("rect [3..10]×[2..4] = " + grid.rectSum(3, 2, 10, 4));                // 14
+        System.out.println("rect [0..23]×[0..4] = " + grid.rectSum(0, 0, 23, 4));                // 25
+
+        // ---- Segment Tree dinámico sobre timestamps de 64 bits ----
+        DynamicSegmentTree ts = new DynamicSegmentTree(Long.MIN_VALUE, Long.MAX_VALUE);
+        long t0 = 1_700_000_000_000_000_000L; // nanosegundos desde epoch
+        ts.add(t0, 3);
+        ts.add(t0 + 1_000, 4);
+        ts.add(t0 + 60_000_000_000L, 5);
+        ts.add(-42, 1);
+        System.out.println("\n[DynamicSegmentTree] sum[t0, t0+1µs] = " + ts.rangeSum(t0, t0 + 1_000));   // 7
+        System.out.println("sum[t0, t0+1min] = " + ts.rangeSum(t0, t0 + 60_000_000_000L));             // 12
+        System.out.println("sum[MIN, MAX] = " + ts.rangeSum(Long.MIN_VALUE, Long.MAX_VALUE));         // 13
+        System.out.println("nodos creados: " + ts.nodeCount());
+
+        // Memoria ∝ actualizaciones, no ∝ rango (2^64 claves)
+        Random rnd = new Random(42);
+        DynamicSegmentTree big = new DynamicSegmentTree(Long.MIN_VALUE, Long.MAX_VALUE);
+        int updates = 100_000;
+        for (int i = 0; i < updates; i++) big.add(rnd.nextLong(), 1);
+        System.out.printf("%,d claves aleatorias en 2^64 → %,d nodos (%.1f por clave), total = %d%n",
+                updates, big.nodeCount(), big.nodeCount() / (double) updates,
+                big.rangeSum(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}
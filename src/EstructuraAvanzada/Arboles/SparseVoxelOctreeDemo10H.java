@@ -0,0 +1,286 @@
+package EstructuraAvanzada.Arboles;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * n.º 10H — Octree disperso de vóxeles (SVO) con claves de Morton y nodos en un pool int[].
+ * Variante de solo lectura de OctreeDemo10C.Octree pensada para nubes de puntos enormes:
+ *  - Puntos en SoA (float[] xs, ys, zs) ordenados por código de Morton 3D de 63 bits
+ *    (21 bits por eje). Así los puntos de cualquier subárbol forman un tramo contiguo.
+ *  - Cada nodo son 4 int en nodes[]: máscara de hijos (8 bits, 0 = hoja), índice del
+ *    primer hijo (los hijos existentes van seguidos, en orden de octante), primer punto
+ *    del tramo y número de puntos del subárbol.
+ *  - No se guarda ninguna caja: la de un nodo se deduce de su profundidad y de su
+ *    prefijo de Morton (celda de lado 2^(21 - prof) cuantos).
+ *
+ * Memoria: 16 bytes por nodo + 20 por punto, 3 float y su código (frente a Node + AABB3D + ArrayList
+ * + double[] por punto en OctreeDemo10C).
+ * Complejidades: build O(n log n) (dominado por el orden); queryBox O(celdas frontera + resultados).
+ */
+public class SparseVoxelOctreeDemo10H {
+
+    static final class SparseVoxelOctree {
+        static final int BITS = 21;                    // bits por eje → código de 63 bits
+        private static final int MAXQ = (1 << BITS) - 1;
+        private static final int STRIDE = 4;           // palabras por nodo
+        private static final int MASK = 0, FIRST_CHILD = 1, START = 2, COUNT = 3;
+
+        private final float minX, minY, minZ;
+        private final double scale, inv;              // cuantos por unidad y tamaño de un cuanto
+        private final int leafSize, maxDepth;
+        private final float[] xs, ys, zs;              // puntos en orden Morton
+        private final long[] codes;
+        private int[] nodes = new int[STRIDE * 64];
+        private int nodeCount;
+
+        /**
+         * Construye sobre copias reordenadas de xs/ys/zs dentro del cubo [min, min + size]³.
+         * Una hoja se deja de subdividir al tener ≤ leafSize puntos o llegar a maxDepth (≤ 21).
+         */
+        public SparseVoxelOctree(float[] xs, float[] ys, float[] zs, float minX, float minY, float minZ,
+                                 float size, int leafSize, int maxDepth){
+            if(xs.length != ys.length || xs.length != zs.length) throw new IllegalArgumentException("xs/ys/zs length mismatch");
+            if(!(size > 0) || leafSize <= 0 || maxDepth < 0 || maxDepth > BITS) throw new IllegalArgumentException();
+            int n = xs.length;
+            this.minX = minX; this.minY = minY; this.minZ = minZ;
+            this.scale = (1 << BITS) / (double) size;
+            this.inv = size / (double) (1 << BITS);
+            this.leafSize = leafSize;
+            this.maxDepth = maxDepth;
+            long[] keys = new long[n];
+            int[] perm = new int[n];
+            IntStream.range(0, n).parallel().forEach(i -> {
+                if(!(xs[i] >= minX && xs[i] <= minX + size && ys[i] >= minY && ys[i] <= minY + size
+                        && zs[i] >= minZ && zs[i] <= minZ + size))
+                    throw new IllegalArgumentException("point outside world: " + i);
+                keys[i] = morton(quantize(xs[i] - minX), quantize(ys[i] - minY), quantize(zs[i] - minZ));
+                perm[i] = i;
+            });
+            LinearQuadTreeDemo10G.LinearQuadTree.radixSort(keys, perm);
+            this.codes = keys;
+            this.xs = new float[n]; this.ys = new float[n]; this.zs = new float[n];
+            IntStream.range(0, n).parallel().forEach(i -> {
+                this.xs[i] = xs[perm[i]]; this.ys[i] = ys[perm[i]]; this.zs[i] = zs[perm[i]];
+            });
+            int root = allocNodes(1);
+            build(root, 0, 0L, 0, n);
+        }
+
+        public int size(){ return xs.length; }
+        public int nodeCount(){ return nodeCount; }
+        public float x(int i){ return xs[i]; }
+        public float y(int i){ return ys[i]; }
+        public float z(int i){ return zs[i]; }
+
+        /** Bytes de los arreglos (nodos usados + puntos + códigos). */
+        public long bytesUsed(){ return (long) nodeCount * STRIDE * 4 + (long) xs.length * (3 * 4 + 8); }
+
+        /**
+         * Posiciones (en el orden interno, usar x(i)/y(i)/z(i)) de los puntos dentro de la caja.
+         * Escribe hasta out.length y devuelve el total (si es mayor que el buffer, hubo truncado).
+         */
+        public int queryBox(float xmin, float ymin, float zmin, float xmax, float ymax, float zmax, int[] out){
+            if(xs.length == 0) return 0;
+            return query(0, 0, 0L, xmin, ymin, zmin, xmax, ymax, zmax, out, 0);
+        }
+
+        /** Cuenta sin recorrer las celdas contenidas enteras (usa el conteo del nodo). */
+        public int countBox(float xmin, float ymin, float zmin, float xmax, float ymax, float zmax){
+            return queryBox(xmin, ymin, zmin, xmax, ymax, zmax, EMPTY);
+        }
+
+        private static final int[] EMPTY = new int[0];
+
+        /** Caja real {x0,y0,z0,x1,y1,z1} de la celda con ese prefijo de Morton a esa profundidad. */
+        public void cellBounds(long prefix, int depth, double[] box){
+            int side = 1 << (BITS - depth);
+            int shift = BITS - depth;
+            box[0] = minX + (double) ((long) compact(prefix) << shift) * inv;
+            box[1] = minY + (double) ((long) compact(prefix >>> 1) << shift) * inv;
+            box[2] = minZ + (double) ((long) compact(prefix >>> 2) << shift) * inv;
+            box[3] = box[0] + side * inv;
+            box[4] = box[1] + side * inv;
+            box[5] = box[2] + side * inv;
+        }
+
+        // ----- Construcción -----
+        /** Rellena el nodo 'node' con los puntos [lo, hi), que comparten 'prefix' a profundidad 'depth'. */
+        private void build(int node, int depth, long prefix, int lo, int hi){
+            int base = node * STRIDE;
+            nodes[base + START] = lo;
+            nodes[base + COUNT] = hi - lo;
+            if(hi - lo <= leafSize || depth == maxDepth) return; // hoja: máscara 0
+            int shift = 3 * (BITS - depth - 1);
+            int[] bounds = new int[9];
+            bounds[0] = lo;
+            int mask = 0, kids = 0;
+            for(int oct = 0; oct < 8; oct++){
+                long end = ((prefix << 3) | oct) + 1;  // primer código del octante siguiente
+                bounds[oct + 1] = oct == 7 ? hi : lowerBound(bounds[oct], hi, end << shift);
+                if(bounds[oct + 1] > bounds[oct]){ mask |= 1 << oct; kids++; }
+            }
+            int first = allocNodes(kids); // hijos existentes contiguos
+            nodes[base + MASK] = mask;
+            nodes[base + FIRST_CHILD] = first;
+            int c = first;
+            for(int oct = 0; oct < 8; oct++){
+                if((mask & (1 << oct)) == 0) continue;
+                build(c++, depth + 1, (prefix << 3) | oct, bounds[oct], bounds[oct + 1]);
+            }
+        }
+
+        private int allocNodes(int k){
+            if((nodeCount + k) * STRIDE > nodes.length) nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, (nodeCount + k) * STRIDE));
+            int first = nodeCount;
+            nodeCount += k;
+            return first;
+        }
+
+        private int lowerBound(int lo, int hi, long key){
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(codes[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // ----- Consulta -----
+        private int query(int node, int depth, long prefix, float xmin, float ymin, float zmin,
+                          float xmax, float ymax, float zmax, int[] out, int count){
+            int base = node * STRIDE;
+            int shift = BITS - depth;
+            long side = 1L << shift;
+            // caja de la celda a partir de (profundidad, prefijo), ampliada un cuanto por el redondeo
+            long ix = (long) compact(prefix) << shift, iy = (long) compact(prefix >>> 1) << shift, iz = (long) compact(prefix >>> 2) << shift;
+            double x0 = minX + (ix - 1) * inv, x1 = minX + (ix + side + 1) * inv;
+            double y0 = minY + (iy - 1) * inv, y1 = minY + (iy + side + 1) * inv;
+            double z0 = minZ + (iz - 1) * inv, z1 = minZ + (iz + side + 1) * inv;
+            if(x1 < xmin || x0 > xmax || y1 < ymin || y0 > ymax || z1 < zmin || z0 > zmax) return count;
+            int start = nodes[base + START], cnt = nodes[base + COUNT];
+            if(x0 >= xmin && x1 <= xmax && y0 >= ymin && y1 <= ymax && z0 >= zmin && z1 <= zmax){
+                for(int i = start, end = Math.min(start + cnt, start + out.length - count); i < end; i++) out[count + i - start] = i;
+                return count + cnt;
+            }
+            int mask = nodes[base + MASK];
+            if(mask == 0){
+                for(int i = start, end = start + cnt; i < end; i++){
+                    if(xs[i] >= xmin && xs[i] <= xmax && ys[i] >= ymin && ys[i] <= ymax && zs[i] >= zmin && zs[i] <= zmax){
+                        if(count < out.length) out[count] = i;
+                        count++;
+                    }
+                }
+                return count;
+            }
+            int c = nodes[base + FIRST_CHILD];
+            for(int oct = 0; oct < 8; oct++){
+                if((mask & (1 << oct)) == 0) continue;
+                count = query(c++, depth + 1, (prefix << 3) | oct, xmin, ymin, zmin, xmax, ymax, zmax, out, count);
+            }
+            return count;
+        }
+
+        // ----- Morton 3D -----
+        private int quantize(float offset){
+            return (int) Math.min(offset * scale, MAXQ);
+        }
+
+        /** Intercala 21 bits de x (bits 0,3,6…), y (1,4,7…) y z (2,5,8…). */
+        static long morton(int x, int y, int z){
+            return spread(x) | (spread(y) << 1) | (spread(z) << 2);
+        }
+
+        private static long spread(int v){
+            long x = v & 0x1FFFFFL;
+            x = (x | (x << 32)) & 0x1F00000000FFFFL;
+            x = (x | (x << 16)) & 0x1F0000FF0000FFL;
+            x = (x | (x << 8))  & 0x100F00F00F00F00FL;
+            x = (x | (x << 4))  & 0x10C30C30C30C30C3L;
+            x = (x | (x << 2))  & 0x1249249249249249L;
+            return x;
+        }
+
+        /** Inverso de spread: recoge los bits 0,3,6… de code. */
+        private static int compact(long code){
+            long x = code & 0x1249249249249249L;
+            x = (x | (x >>> 2))  & 0x10C30C30C30C30C3L;
+            x = (x | (x >>> 4))  & 0x100F00F00F00F00FL;
+            x = (x | (x >>> 8))  & 0x1F0000FF0000FFL;
+            x = (x | (x >>> 16)) & 0x1F00000000FFFFL;
+            x = (x | (x >>> 32)) & 0x1FFFFFL;
+            return (int) x;
+        }
+    }
+
+    // ===== DEMO MAIN =====
+    public static void main(String[] args) {
+        float[] px = {-15, -3, 0, 2, 4, 7, 10, 12, 14, -8};
+        float[] py = {-15, 5, 0, 3, -4, 7, -10, 12, 1, 9};
+        float[] pz = {0, 1, 2, -3, 4, -5, 6, -7, 8, -9};
+        SparseVoxelOctree svo = new SparseVoxelOctree(px, py, pz, -16, -16, -16, 32, 2, 21);
+        int[] out = new int[16];
+        int c = svo.queryBox(-6, -6, -6, 6, 6, 6, out);
+        System.out.print("queryBox [-6..6]³:");
+        for (int i = 0; i < c; i++) System.out.print(" (" + svo.x(out[i]) + ", " + svo.y(out[i]) + ", " + svo.z(out[i]) + ")");
+        System.out.println("\nnodos: " + svo.nodeCount());
+        double[] box = new double[6];
+        svo.cellBounds(0b111, 1, box); // octante (+x,+y,+z) de profundidad 1
+        System.out.println("celda prof=1, código 7: " + Arrays.toString(box));
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+    }
+
+    // ===== BENCHMARK: memoria y consultas frente a OctreeDemo10C.Octree =====
+    // Para nubes grandes: java -Xmx8g EstructuraAvanzada.Arboles.SparseVoxelOctreeDemo10H 100000000
+    static void benchmark(int n) {
+        // "LiDAR" sintético: terreno ondulado z = f(x, y) con ruido
+        Random rnd = new Random(42);
+        float[] xs = new float[n], ys = new float[n], zs = new float[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = rnd.nextFloat() * 1000;
+            ys[i] = rnd.nextFloat() * 1000;
+            zs[i] = (float) (100 + 40 * Math.sin(xs[i] / 80) * Math.cos(ys[i] / 60) + rnd.nextGaussian());
+        }
+        int queries = 10_000;
+        float[] qx = new float[queries], qy = new float[queries];
+        for (int i = 0; i < queries; i++) { qx[i] = rnd.nextFloat() * 1000; qy[i] = rnd.nextFloat() * 1000; }
+        int[] buf = new int[1 << 16];
+
+        long heap0 = usedHeap();
+        long t0 = System.nanoTime();
+        SparseVoxelOctree svo = new SparseVoxelOctree(xs, ys, zs, 0, 0, 0, 1000, 32, 21);
+        long svoBuild = (System.nanoTime() - t0) / 1_000_000;
+        long svoHeap = usedHeap() - heap0;
+        long svoHits = 0;
+        for (int rep = 0; rep < 2; rep++) { // 1.ª vuelta: calentamiento JIT
+            svoHits = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < queries; i++) svoHits += svo.queryBox(qx[i] - 5, qy[i] - 5, 0, qx[i] + 5, qy[i] + 5, 200, buf);
+        }
+        long svoQuery = System.nanoTime() - t0;
+
+        heap0 = usedHeap();
+        t0 = System.nanoTime();
+        OctreeDemo10C.Octree oct = new OctreeDemo10C.Octree(500, 500, 500, 500, 500, 500, 32);
+        for (int i = 0; i < n; i++) oct.insert(xs[i], ys[i], zs[i]);
+        long octBuild = (System.nanoTime() - t0) / 1_000_000;
+        long octHeap = usedHeap() - heap0;
+        long octHits = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < queries; i++) octHits += oct.queryRange(qx[i], qy[i], 100, 5, 5, 100).size();
+        long octQuery = System.nanoTime() - t0;
+
+        System.out.printf("%n[n=%,d puntos, %,d consultas 10×10×200]%n", n, queries);
+        System.out.printf("SVO   : build %d ms, %,d nodos, ~%,d MB (arreglos %,d MB), %.2f µs/consulta (%,d resultados)%n",
+                svoBuild, svo.nodeCount(), svoHeap >> 20, svo.bytesUsed() >> 20, svoQuery / 1e3 / queries, svoHits);
+        System.out.printf("Octree: build %d ms, ~%,d MB, %.2f µs/consulta (%,d resultados)%n",
+                octBuild, octHeap >> 20, octQuery / 1e3 / queries, octHits);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
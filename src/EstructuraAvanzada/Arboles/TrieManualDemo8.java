@@ -1,11 +1,25 @@
 package EstructuraAvanzada.Arboles;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.util.*;
 
 /**
  * Trie (Prefix Tree) para cadenas Unicode (usa HashMap por nodo).
  * Funciones: insert, contains (palabra exacta), startsWith, delete,
  * countWords, countPrefixes, autocompletar (wordsWithPrefix).
+ *
+ * Autocompletado ponderado: insert(word, weight) guarda un peso (p. ej. frecuencia)
+ * y cada nodo mantiene en caché sus 'topK' mejores palabras del subárbol, así
+ * topCompletions(prefix, k) cuesta O(|prefix| + k), sin depender del tamaño del subárbol.
+ *
+ * Búsqueda difusa: fuzzySearch(query, maxEdits, limit) recorre el trie calculando una fila
+ * de la DP de Levenshtein por nodo y poda las ramas cuyo mínimo de fila ya supera maxEdits.
+ *
+ * Congelado: freeze() minimiza el trie en un DAWG (comparte sufijos comunes) y lo
+ * serializa en un byte[] compacto que se consulta directamente (también mapeado con mmap).
  */
 public class TrieManualDemo8 {
 
@@ -14,35 +28,70 @@ public class TrieManualDemo8 {
             Map<Character, Node> next = new HashMap<>();
             boolean isWord;      // marca fin de palabra
             int pass;            // cuántas palabras pasan por este nodo (prefijos)
+            String word;         // palabra completa (solo si isWord), para devolver sugerencias sin reconstruir
+            long weight;         // peso de la palabra (solo si isWord)
+            Node[] top;          // caché: mejores palabras del subárbol (nodos terminales), por peso desc
+            int topSize;
         }
 
         private final Node root = new Node();
+        private final int topK;  // tamaño de la caché por nodo
         private int words; // número de palabras distintas almacenadas
 
-        /** Inserta palabra; ignora inserción duplicada sobre la misma palabra. */
+        public Trie() { this(10); }
+
+        public Trie(int topK) {
+            if (topK <= 0) throw new IllegalArgumentException("topK must be > 0");
+            this.topK = topK;
+        }
+
+        /** Inserta palabra con peso 0; ignora inserción duplicada (conserva el peso actual). */
         public void insert(String word) {
             Objects.requireNonNull(word, "word");
+            Node x = walk(word);
+            if (x != null && x.isWord) return;
+            insert(word, 0L);
+        }
+
+        /**
+         * Inserta la palabra o actualiza su peso si ya existía.
+         * Actualiza incrementalmente la caché top-k de cada nodo del camino.
+         */
+        public void insert(String word, long weight) {
+            Objects.requireNonNull(word, "word");
+            Node[] path = new Node[word.length() + 1];
+            Node end = walk(word);
+            if (end != null && end.isWord) {
+                long old = end.weight;
+                end.weight = weight;
+                fillPath(word, path);
+                if (weight >= old) {
+                    for (int i = path.length - 1; i >= 0; i--) offerTop(path[i], end);
+                } else {
+                    // El peso bajó: solo hay que recalcular los nodos que lo tenían en caché
+                    for (int i = path.length - 1; i >= 0 && inTop(path[i], end); i--) rebuildTop(path[i]);
+                }
+                return;
+            }
             Node x = root;
             x.pass++;
-            boolean newWord = false;
+            path[0] = x;
             for (int i = 0; i < word.length(); i++) {
                 char ch = word.charAt(i);
                 Node nxt = x.next.get(ch);
                 if (nxt == null) {
                     nxt = new Node();
                     x.next.put(ch, nxt);
-                    newWord = true; // al menos un nodo nuevo
                 }
                 x = nxt;
                 x.pass++;
+                path[i + 1] = x;
             }
-            if (!x.isWord) { // si no existía exacta
-                x.isWord = true;
-                words++;
-            } else if (newWord) {
-                // Palabra ya marcada pero se creó rama (raro si paths comparten)
-                // no ajustamos 'words' porque no es palabra nueva
-            }
+            x.isWord = true;
+            x.word = word;
+            x.weight = weight;
+            words++;
+            for (int i = path.length - 1; i >= 0; i--) offerTop(path[i], x);
         }
 
         /** ¿Existe la palabra exacta? */
@@ -68,6 +117,9 @@ public class TrieManualDemo8 {
             node.pass--;
             if (i == w.length()) {
                 node.isWord = false;
+                node.word = null;
+                node.weight = 0L;
+                rebuildTop(node);
                 // Si no tiene hijos y no es palabra, indicar al padre que lo elimine
                 return node.next.isEmpty();
             }
@@ -75,6 +127,7 @@ public class TrieManualDemo8 {
             Node child = node.next.get(ch);
             boolean removeChild = deleteRec(child, w, i + 1);
             if (removeChild) node.next.remove(ch);
+            rebuildTop(node); // la palabra borrada pudo estar en la caché de este nodo
             // borrar este nodo si no es raíz, no es palabra y no tiene hijos
             return !node.isWord && node.next.isEmpty() && node != root;
         }
@@ -98,6 +151,83 @@ public class TrieManualDemo8 {
             return out;
         }
 
+        /**
+         * Hasta 'k' palabras con el prefijo dado, ordenadas por peso descendente
+         * (empates por orden lexicográfico). Lee la caché del nodo: O(|prefix| + k).
+         * 'k' se limita al topK con el que se construyó el trie.
+         */
+        public List<String> topCompletions(String prefix, int k) {
+            Node start = walk(prefix);
+            if (start == null || k <= 0) return new ArrayList<>();
+            int n = Math.min(k, start.topSize);
+            List<String> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(start.top[i].word);
+            return out;
+        }
+
+        /** Peso de la palabra, o -1 si no existe. */
+        public long weightOf(String word) {
+            Node x = walk(word);
+            return x != null && x.isWord ? x.weight : -1L;
+        }
+
+        /**
+         * Palabras a distancia de edición (Levenshtein) &lt;= maxEdits de 'query'.
+         * Orden: distancia asc, peso desc, palabra asc; se devuelven hasta 'limit'.
+         * Cada nodo visitado calcula una fila de la DP a partir de la de su padre
+         * (los prefijos comunes comparten trabajo) y si el mínimo de la fila supera
+         * maxEdits ninguna palabra del subárbol puede entrar: la rama se poda.
+         */
+        public List<String> fuzzySearch(String query, int maxEdits, int limit) {
+            Objects.requireNonNull(query, "query");
+            if (maxEdits < 0) throw new IllegalArgumentException("maxEdits must be >= 0");
+            List<String> out = new ArrayList<>();
+            if (limit <= 0) return out;
+            int m = query.length();
+            // filas reutilizadas por profundidad; crecen solo hasta la profundidad que de verdad se
+            // visita (no se dimensiona con maxEdits, que puede ser enorme)
+            List<int[]> rows = new ArrayList<>();
+            int[] first = new int[m + 1];
+            for (int j = 0; j <= m; j++) first[j] = j;
+            rows.add(first);
+            List<Node> hits = new ArrayList<>();
+            List<Integer> dists = new ArrayList<>();
+            if (root.isWord && m <= maxEdits) { hits.add(root); dists.add(m); }
+            for (Map.Entry<Character, Node> e : root.next.entrySet()) {
+                fuzzyRec(e.getValue(), e.getKey(), 1, query, maxEdits, rows, hits, dists);
+            }
+            Integer[] order = new Integer[hits.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int c = Integer.compare(dists.get(a), dists.get(b));
+                return c != 0 ? c : better(hits.get(a), hits.get(b)) ? -1 : 1;
+            });
+            for (int i = 0; i < order.length && out.size() < limit; i++) out.add(hits.get(order[i]).word);
+            return out;
+        }
+
+        private void fuzzyRec(Node node, char ch, int depth, String q, int maxEdits,
+                              List<int[]> rows, List<Node> hits, List<Integer> dists) {
+            // profundidad > |q| + maxEdits nunca llega aquí: la fila ya supera maxEdits
+            int m = q.length();
+            int[] prev = rows.get(depth - 1);
+            if (rows.size() == depth) rows.add(new int[m + 1]); // primera vez a esta profundidad
+            int[] cur = rows.get(depth);
+            cur[0] = depth;
+            int rowMin = cur[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = q.charAt(j - 1) == ch ? 0 : 1;
+                int v = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                cur[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (node.isWord && cur[m] <= maxEdits) { hits.add(node); dists.add(cur[m]); }
+            if (rowMin > maxEdits) return; // poda: ninguna extensión puede bajar de rowMin
+            for (Map.Entry<Character, Node> e : node.next.entrySet()) {
+                fuzzyRec(e.getValue(), e.getKey(), depth + 1, q, maxEdits, rows, hits, dists);
+            }
+        }
+
         /** Todas las palabras (cuidado: puede ser grande). */
         public List<String> allWords() {
             List<String> out = new ArrayList<>(words);
@@ -105,6 +235,57 @@ public class TrieManualDemo8 {
             return out;
         }
 
+        /** Número de nodos (incluida la raíz). */
+        public int nodeCount() { return countNodes(root); }
+
+        /**
+         * Minimiza el trie en un DAWG (autómata acíclico mínimo) y lo serializa.
+         * Dos nodos con el mismo lenguaje derecho (mismo isWord y mismas aristas a
+         * estados equivalentes) se fusionan; como 'pass' es el número de palabras de
+         * ese lenguaje, los nodos fusionados tienen el mismo contador y se conserva.
+         * El trie original no se modifica.
+         */
+        public Dawg freeze() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bytes);
+            Map<String, Integer> registry = new HashMap<>(); // firma del estado -> offset
+            int rootOff;
+            try {
+                rootOff = freezeRec(root, body, registry);
+                body.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // ByteArrayOutputStream no lanza en la práctica
+            }
+            byte[] b = bytes.toByteArray();
+            ByteBuffer buf = ByteBuffer.allocate(Dawg.HEADER + b.length);
+            buf.putInt(Dawg.MAGIC).putInt(rootOff).putInt(registry.size()).put(b);
+            return new Dawg(buf.array());
+        }
+
+        /** Escribe el estado en post-orden (hijos antes que padre) y devuelve su offset. */
+        private int freezeRec(Node n, DataOutputStream out, Map<String, Integer> registry) throws IOException {
+            List<Character> ks = new ArrayList<>(n.next.keySet());
+            Collections.sort(ks); // aristas ordenadas → búsqueda binaria en el formato congelado
+            int[] childOff = new int[ks.size()];
+            StringBuilder sig = new StringBuilder().append(n.isWord ? '1' : '0');
+            for (int i = 0; i < ks.size(); i++) {
+                childOff[i] = freezeRec(n.next.get(ks.get(i)), out, registry);
+                sig.append(ks.get(i)).append(childOff[i]).append(',');
+            }
+            Integer known = registry.get(sig.toString());
+            if (known != null) return known;
+            int off = out.size();
+            out.writeByte(n.isWord ? 1 : 0);
+            out.writeInt(n.pass);
+            out.writeInt(ks.size());
+            for (int i = 0; i < ks.size(); i++) {
+                out.writeChar(ks.get(i));
+                out.writeInt(childOff[i]);
+            }
+            registry.put(sig.toString(), off);
+            return off;
+        }
+
         // ---- Internos ----
         private Node walk(String s) {
             Objects.requireNonNull(s, "string");
@@ -117,6 +298,68 @@ public class TrieManualDemo8 {
             return x;
         }
 
+        private void fillPath(String s, Node[] path) {
+            Node x = root;
+            path[0] = x;
+            for (int i = 0; i < s.length(); i++) {
+                x = x.next.get(s.charAt(i));
+                path[i + 1] = x;
+            }
+        }
+
+        /** ¿a va antes que b? (peso desc, luego palabra asc) */
+        private static boolean better(Node a, Node b) {
+            if (a.weight != b.weight) return a.weight > b.weight;
+            return a.word.compareTo(b.word) < 0;
+        }
+
+        private static boolean inTop(Node n, Node w) {
+            for (int i = 0; i < n.topSize; i++) if (n.top[i] == w) return true;
+            return false;
+        }
+
+        /** Inserta/reubica el terminal 'w' en la caché de 'n' (válido si su peso no bajó). */
+        private void offerTop(Node n, Node w) {
+            if (n.top == null) n.top = new Node[Math.min(topK, 2)]; // crece bajo demanda (la mayoría de nodos tienen pocas palabras)
+            int pos = -1;
+            for (int i = 0; i < n.topSize; i++) if (n.top[i] == w) { pos = i; break; }
+            if (pos < 0) {
+                if (n.topSize == topK) {
+                    if (!better(w, n.top[topK - 1])) return;
+                    pos = topK - 1; // desplaza al peor
+                } else {
+                    if (n.topSize == n.top.length) n.top = Arrays.copyOf(n.top, Math.min(topK, n.top.length * 2));
+                    pos = n.topSize++;
+                }
+            }
+            // subir 'w' hasta su posición (inserción en arreglo ordenado)
+            while (pos > 0 && better(w, n.top[pos - 1])) {
+                n.top[pos] = n.top[pos - 1];
+                pos--;
+            }
+            n.top[pos] = w;
+        }
+
+        /** Recalcula la caché de 'n' a partir de su propia palabra y las cachés de sus hijos. */
+        private void rebuildTop(Node n) {
+            n.topSize = 0;
+            if (n.isWord) offerTop(n, n);
+            for (Node c : n.next.values()) {
+                for (int i = 0; i < c.topSize; i++) {
+                    // las cachés de los hijos están ordenadas: si uno no entra, los siguientes tampoco
+                    if (n.top != null && n.topSize == topK && !better(c.top[i], n.top[topK - 1])) break;
+                    offerTop(n, c.top[i]);
+                }
+            }
+            for (int i = n.topSize; n.top != null && i < n.top.length; i++) n.top[i] = null; // help GC
+        }
+
+        private int countNodes(Node n) {
+            int c = 1;
+            for (Node ch : n.next.values()) c += countNodes(ch);
+            return c;
+        }
+
         private void dfs(Node node, StringBuilder path, List<String> out, int limit) {
             if (out.size() >= limit) return;
             if (node.isWord) {
@@ -135,6 +378,86 @@ public class TrieManualDemo8 {
         }
     }
 
+    /* ===================== DAWG congelado (solo lectura) ===================== */
+
+    /**
+     * Vista de solo lectura sobre un DAWG serializado por Trie.freeze().
+     * Las consultas leen directamente del ByteBuffer (heap o MappedByteBuffer),
+     * sin deserializar ni crear objetos por estado.
+     *
+     * Formato (big-endian):
+     *  header: int MAGIC, int offset de la raíz, int número de estados
+     *  estado: byte flags (bit0 = palabra), int palabras del lenguaje derecho,
+     *          int nAristas, nAristas × (char etiqueta, int offset destino) ordenadas por etiqueta
+     * Los offsets son relativos al final del header.
+     */
+    static final class Dawg {
+        static final int MAGIC = 0x44415747; // "DAWG"
+        static final int HEADER = 12;
+        private static final int STATE_FIXED = 1 + 4 + 4;
+        private static final int EDGE = 2 + 4;
+
+        private final ByteBuffer buf;
+        private final int rootOff;
+
+        Dawg(byte[] bytes) { this(ByteBuffer.wrap(bytes)); }
+
+        private Dawg(ByteBuffer buf) {
+            if (buf.getInt(0) != MAGIC) throw new IllegalArgumentException("Not a DAWG buffer");
+            this.buf = buf;
+            this.rootOff = buf.getInt(4);
+        }
+
+        /** Envuelve un buffer ya serializado (p. ej. FileChannel.map(...)). */
+        public static Dawg wrap(ByteBuffer buf) { return new Dawg(buf.duplicate()); }
+
+        /** Copia del formato serializado (para guardarlo en disco). */
+        public byte[] toByteArray() {
+            byte[] out = new byte[buf.capacity()];
+            buf.duplicate().position(0).get(out);
+            return out;
+        }
+
+        public int byteSize() { return buf.capacity(); }
+        public int stateCount() { return buf.getInt(8); }
+        public int size() { return buf.getInt(HEADER + rootOff + 1); }
+
+        public boolean contains(String word) {
+            int s = walk(word);
+            return s >= 0 && (buf.get(HEADER + s) & 1) != 0;
+        }
+
+        public boolean startsWith(String prefix) { return walk(prefix) >= 0; }
+
+        public int countPrefixes(String prefix) {
+            int s = walk(prefix);
+            return s < 0 ? 0 : buf.getInt(HEADER + s + 1);
+        }
+
+        /** Offset del estado alcanzado con 's', o -1. */
+        private int walk(String s) {
+            Objects.requireNonNull(s, "string");
+            int state = rootOff;
+            for (int i = 0; i < s.length() && state >= 0; i++) state = step(state, s.charAt(i));
+            return state;
+        }
+
+        /** Transición por búsqueda binaria sobre las aristas ordenadas del estado. */
+        private int step(int state, char ch) {
+            int base = HEADER + state;
+            int lo = 0, hi = buf.getInt(base + 5) - 1;
+            int edges = base + STATE_FIXED;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char c = buf.getChar(edges + mid * EDGE);
+                if (c < ch) lo = mid + 1;
+                else if (c > ch) hi = mid - 1;
+                else return buf.getInt(edges + mid * EDGE + 2);
+            }
+            return -1;
+        }
+    }
+
     // ===== DEMO MAIN =====
     public static void main(String[] args) {
         Trie trie = new Trie();
@@ -164,14 +487,111 @@ public class TrieManualDemo8 {
         System.out.println("\nAutocomplete 'ho' (lim=6): " + trie.wordsWithPrefix("ho", 6));
         System.out.println("Autocomplete 'bot' (lim=5): " + trie.wordsWithPrefix("bot", 5));
 
+        // Autocompletado ponderado (top-k por frecuencia)
+        trie.insert("hotel", 50);
+        trie.insert("hola", 120);
+        trie.insert("hondo", 30);
+        trie.insert("honor", 80);
+        trie.insert("botón", 15);
+        System.out.println("\nTop 'ho' (k=3): " + trie.topCompletions("ho", 3));  // [hola, honor, hotel]
+        System.out.println("Top 'bot' (k=3): " + trie.topCompletions("bot", 3)); // [botón, bot, bota]
+        trie.insert("hola", 10); // baja el peso → se recalculan las cachés afectadas
+        System.out.println("Top 'ho' tras bajar 'hola' a 10: " + trie.topCompletions("ho", 3)); // [honor, hotel, hondo]
+
+        // Búsqueda difusa (tolerante a errores de tipeo)
+        System.out.println("\nfuzzy 'hloa' (k=1): " + trie.fuzzySearch("hloa", 1, 10)); // []
+        System.out.println("fuzzy 'hloa' (k=2): " + trie.fuzzySearch("hloa", 2, 10)); // incluye hola, hoja
+        System.out.println("fuzzy 'botn' (k=1): " + trie.fuzzySearch("botn", 1, 10)); // [botón, bot, bota] (empate: por peso)
+
         // Borrado
         System.out.println("\ndelete('hotel'): " + trie.delete("hotel")); // true
         System.out.println("delete('hotel'): " + trie.delete("hotel"));   // false
         System.out.println("contains('hotel'): " + trie.contains("hotel"));// false
         System.out.println("size: " + trie.size());
+        System.out.println("Top 'ho' tras borrar 'hotel': " + trie.topCompletions("ho", 3)); // [honor, hondo, hola]
 
         // Todas las palabras (orden lexicográfico por carácter):
         System.out.println("\nTodas las palabras:");
         System.out.println(trie.allWords());
+
+        // Congelado a DAWG: comparte sufijos ("-ndo", "-or", "-a"...)
+        Trie dict = new Trie();
+        for (String w : new String[]{"cantar", "contar", "cantando", "contando", "cantaba", "contaba",
+                "saltar", "saltando", "saltaba", "bailar", "bailando", "bailaba"}) dict.insert(w);
+        Dawg dawg = dict.freeze();
+        System.out.println("\nTrie nodos=" + dict.nodeCount() + "  →  DAWG estados=" + dawg.stateCount()
+                + ", bytes=" + dawg.byteSize());
+        System.out.println("dawg.contains('contando'): " + dawg.contains("contando"));   // true
+        System.out.println("dawg.contains('contand'): " + dawg.contains("contand"));     // false
+        System.out.println("dawg.startsWith('sal'): " + dawg.startsWith("sal"));         // true
+        System.out.println("dawg.countPrefixes('c'): " + dawg.countPrefixes("c"));       // 6
+        System.out.println("dawg.countPrefixes('canta'): " + dawg.countPrefixes("canta")); // 3
+
+        // Guardar y consultar vía mmap, sin deserializar
+        try {
+            Path file = Files.createTempFile("dict", ".dawg");
+            Files.write(file, dawg.toByteArray());
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                Dawg mapped = Dawg.wrap(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+                System.out.println("mmap countPrefixes('bail'): " + mapped.countPrefixes("bail")); // 3
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            System.out.println("mmap no disponible: " + e.getMessage());
+        }
+
+        // Benchmark difuso: java TrieManualDemo8 1000000 (por defecto 100000 palabras)
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        benchmarkFuzzy(n);
+    }
+
+    // ===== BENCHMARK fuzzySearch vs. recorrido completo =====
+    static void benchmarkFuzzy(int nWords) {
+        Random rnd = new Random(42);
+        Trie t = new Trie();
+        List<String> dict = new ArrayList<>(nWords);
+        for (int i = 0; i < nWords; i++) {
+            int len = 4 + rnd.nextInt(7);
+            StringBuilder sb = new StringBuilder(len);
+            for (int j = 0; j < len; j++) sb.append((char) ('a' + rnd.nextInt(26)));
+            String w = sb.toString();
+            t.insert(w);
+            dict.add(w);
+        }
+        String[] queries = new String[200];
+        for (int i = 0; i < queries.length; i++) {
+            char[] w = dict.get(rnd.nextInt(dict.size())).toCharArray();
+            w[rnd.nextInt(w.length)] = (char) ('a' + rnd.nextInt(26)); // un error de tipeo
+            queries[i] = new String(w);
+        }
+        System.out.println("\n[Benchmark fuzzy] palabras=" + t.size());
+        for (int k = 1; k <= 2; k++) {
+            for (String q : queries) t.fuzzySearch(q, k, 10); // calentamiento JIT
+            long t0 = System.nanoTime();
+            long found = 0;
+            for (String q : queries) found += t.fuzzySearch(q, k, 10).size();
+            long trieNs = (System.nanoTime() - t0) / queries.length;
+
+            t0 = System.nanoTime();
+            long brute = 0;
+            for (int i = 0; i < 20; i++) for (String w : dict) if (levenshtein(queries[i], w) <= k) brute++;
+            long bruteNs = (System.nanoTime() - t0) / 20;
+            System.out.printf("k=%d  trie: %,d µs/consulta (%.1f resultados)  |  fuerza bruta: %,d µs/consulta%n",
+                    k, trieNs / 1000, found / (double) queries.length, bruteNs / 1000);
+        }
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] prev = new int[b.length() + 1], cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev; prev = cur; cur = tmp;
+        }
+        return prev[b.length()];
     }
 }
@@ -0,0 +1,370 @@
+package EstructuraAvanzada;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Lista indexable sobre una skip list con anchos (indexable skip list).
+ * Misma API que DoublyLinkedListDemo.DoublyLinkedList, pero las operaciones por
+ * posición no recorren la lista elemento a elemento:
+ *  - Cada enlace del nivel l guarda su "ancho": cuántas posiciones salta. Bajar por
+ *    los niveles sumando anchos localiza la posición i en O(log n) esperado.
+ *  - Las alturas son aleatorias (p = 1/2), hasta MAX_LEVEL niveles.
+ *  - last[l] / lastIndex[l] recuerdan el último nodo de cada nivel: addLast solo toca
+ *    los niveles del nodo nuevo (O(1) esperado).
+ *  - El nivel 0 además tiene enlace prev, para descendingIterator.
+ *
+ * Complejidades (esperadas): get/set/add(index)/removeAt/addFirst/removeFirst/removeLast
+ * O(log n); addLast O(1); indexOf/remove(Object) O(n).
+ */
+public class IndexableSkipListDemo {
+
+    static class IndexableSkipList<T> implements Iterable<T> {
+
+        private static final int MAX_LEVEL = 32;
+
+        // ----- Nodo -----
+        private static final class Node<E> {
+            E item;
+            final Node<E>[] next;   // next[l]: siguiente nodo en el nivel l
+            final int[] width;      // width[l]: posiciones que salta next[l] (sin uso si next[l] == null)
+            Node<E> prev;           // solo nivel 0
+            @SuppressWarnings("unchecked")
+            Node(E item, int height) {
+                this.item = item;
+                this.next = (Node<E>[]) new Node<?>[height];
+                this.width = new int[height];
+            }
+        }
+
+        // ----- Campos -----
+        private final Node<T> head = new Node<>(null, MAX_LEVEL); // centinela en la posición 0
+        private int level = 1;       // niveles en uso
+        private int size;
+        private int modCount;        // para iteradores fail-fast simples
+        @SuppressWarnings("unchecked")
+        private final Node<T>[] last = (Node<T>[]) new Node<?>[MAX_LEVEL];
+        private final int[] lastIndex = new int[MAX_LEVEL];
+        // buffers de búsqueda reutilizados (la lista no es segura entre hilos)
+        @SuppressWarnings("unchecked")
+        private final Node<T>[] update = (Node<T>[]) new Node<?>[MAX_LEVEL];
+        private final int[] updatePos = new int[MAX_LEVEL];
+        private final Random rnd = new Random();
+
+        // ----- Constructores -----
+        public IndexableSkipList() {
+            java.util.Arrays.fill(last, head);
+        }
+
+        // ----- Métricas -----
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+
+        // ----- Helpers internos -----
+        private void checkElementIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+        private void checkPositionIndex(int index) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        // Rellena update[l] / updatePos[l] con el último nodo de cada nivel antes de la posición
+        // 'target' (1-based; el centinela es la 0) y devuelve el de nivel 0.
+        private Node<T> findPredecessors(int target) {
+            Node<T> x = head;
+            int pos = 0;
+            for (int l = level - 1; l >= 0; l--) {
+                while (x.next[l] != null && pos + x.width[l] < target) {
+                    pos += x.width[l];
+                    x = x.next[l];
+                }
+                update[l] = x;
+                updatePos[l] = pos;
+            }
+            return x;
+        }
+
+        // Nodo en la posición 'index' (0-based) sin tocar los buffers de búsqueda
+        private Node<T> nodeAt(int index) {
+            int target = index + 1;
+            Node<T> x = head;
+            int pos = 0;
+            for (int l = level - 1; l >= 0; l--) {
+                while (x.next[l] != null && pos + x.width[l] <= target) {
+                    pos += x.width[l];
+                    x = x.next[l];
+                }
+                if (pos == target) return x;
+            }
+            return x;
+        }
+
+        private int randomHeight() {
+            int h = 1 + Integer.numberOfTrailingZeros(rnd.nextInt() | (1 << (MAX_LEVEL - 2)));
+            return Math.min(h, MAX_LEVEL);
+        }
+
+        // ----- Inserciones -----
+        public void addFirst(T item) { add(0, item); }
+
+        public void addLast(T item) {
+            int h = randomHeight();
+            Node<T> n = new Node<>(item, h);
+            if (h > level) level = h;
+            int target = size + 1;
+            Node<T> oldLast = last[0];
+            for (int l = 0; l < h; l++) {
+                last[l].next[l] = n;
+                last[l].width[l] = target - lastIndex[l];
+                last[l] = n;
+                lastIndex[l] = target;
+            }
+            n.prev = oldLast == head ? null : oldLast;
+            size++; modCount++;
+        }
+
+        // Inserta en una posición [0..size]; index==size es equivalente a addLast
+        public void add(int index, T item) {
+            checkPositionIndex(index);
+            if (index == size) { addLast(item); return; }
+            int target = index + 1;
+            findPredecessors(target);
+            int h = randomHeight();
+            if (h > level) {
+                for (int l = level; l < h; l++) { update[l] = head; updatePos[l] = 0; }
+                level = h;
+            }
+            Node<T> n = new Node<>(item, h);
+            for (int l = 0; l < level; l++) {
+                Node<T> u = update[l];
+                if (l < h) {
+                    n.next[l] = u.next[l];
+                    if (u.next[l] != null) n.width[l] = updatePos[l] + u.width[l] + 1 - target;
+                    u.next[l] = n;
+                    u.width[l] = target - updatePos[l];
+                } else if (u.next[l] != null) {
+                    u.width[l]++;
+                }
+            }
+            // último de cada nivel: el nuevo si quedó al final de ese nivel; si no, se corre una
+            // posición cuando estaba detrás del punto de inserción
+            for (int l = 0; l < level; l++) {
+                if (l < h && n.next[l] == null) { last[l] = n; lastIndex[l] = target; }
+                else if (lastIndex[l] >= target) lastIndex[l]++;
+            }
+            Node<T> after = n.next[0];
+            n.prev = update[0] == head ? null : update[0];
+            after.prev = n;
+            size++; modCount++;
+        }
+
+        // ----- Acceso / actualización -----
+        public T get(int index) {
+            checkElementIndex(index);
+            return nodeAt(index).item;
+        }
+
+        public T set(int index, T newValue) {
+            checkElementIndex(index);
+            Node<T> x = nodeAt(index);
+            T old = x.item;
+            x.item = newValue;
+            return old;
+        }
+
+        // ----- Eliminaciones -----
+        public T removeFirst() {
+            if (size == 0) throw new NoSuchElementException("List is empty");
+            return removeAt(0);
+        }
+
+        public T removeLast() {
+            if (size == 0) throw new NoSuchElementException("List is empty");
+            return removeAt(size - 1);
+        }
+
+        public T removeAt(int index) {
+            checkElementIndex(index);
+            int target = index + 1;
+            Node<T> pred = findPredecessors(target);
+            Node<T> x = pred.next[0];
+            int h = x.next.length;
+            for (int l = 0; l < level; l++) {
+                Node<T> u = update[l];
+                if (l < h) {
+                    u.next[l] = x.next[l];
+                    if (x.next[l] != null) u.width[l] += x.width[l] - 1;
+                } else if (u.next[l] != null) {
+                    u.width[l]--;
+                }
+                if (last[l] == x) { last[l] = u; lastIndex[l] = updatePos[l]; }
+                else if (lastIndex[l] > target) lastIndex[l]--;
+            }
+            if (x.next[0] != null) x.next[0].prev = x.prev;
+            while (level > 1 && head.next[level - 1] == null) level--;
+            T v = x.item;
+            x.item = null; x.prev = null; // help GC
+            size--; modCount++;
+            return v;
+        }
+
+        // Elimina la primera aparición de 'o' (== null-safe equals)
+        public boolean remove(Object o) {
+            int i = indexOf(o);
+            if (i < 0) return false;
+            removeAt(i);
+            return true;
+        }
+
+        public void clear() {
+            java.util.Arrays.fill(head.next, null);
+            java.util.Arrays.fill(last, head);
+            java.util.Arrays.fill(lastIndex, 0);
+            level = 1;
+            size = 0; modCount++;
+        }
+
+        // ----- Búsquedas -----
+        public int indexOf(Object o) {
+            int i = 0;
+            for (Node<T> x = head.next[0]; x != null; x = x.next[0], i++) {
+                if (o == null ? x.item == null : o.equals(x.item)) return i;
+            }
+            return -1;
+        }
+        public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+        // ----- Iteradores -----
+        @Override
+        public Iterator<T> iterator() {
+            return new SkipIterator(true);
+        }
+
+        public Iterator<T> descendingIterator() {
+            return new SkipIterator(false);
+        }
+
+        private final class SkipIterator implements Iterator<T> {
+            private Node<T> nextNode;
+            private final int expectedModCount;
+            private final boolean forward;
+
+            SkipIterator(boolean forward) {
+                this.forward = forward;
+                this.expectedModCount = modCount;
+                this.nextNode = forward ? head.next[0] : (size == 0 ? null : last[0]);
+            }
+
+            private void checkForComodification() {
+                if (expectedModCount != modCount) {
+                    throw new IllegalStateException("List modified during iteration");
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextNode != null;
+            }
+
+            @Override
+            public T next() {
+                checkForComodification();
+                if (nextNode == null) throw new NoSuchElementException();
+                Node<T> r = nextNode;
+                nextNode = forward ? r.next[0] : r.prev;
+                return r.item;
+            }
+        }
+
+        // ----- toString -----
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[");
+            Node<T> x = head.next[0];
+            while (x != null) {
+                sb.append(x.item);
+                x = x.next[0];
+                if (x != null) sb.append(", ");
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+
+    // ===== Demo rápida en main =====
+    public static void main(String[] args) {
+        IndexableSkipList<Integer> list = new IndexableSkipList<>();
+
+        list.addFirst(2);           // [2]
+        list.addFirst(1);           // [1, 2]
+        list.addLast(3);            // [1, 2, 3]
+        list.add(3, 5);             // [1, 2, 3, 5]
+        list.add(3, 4);             // [1, 2, 3, 4, 5]
+        System.out.println("Inicial: " + list);
+        System.out.println("get(0)=" + list.get(0) + ", get(4)=" + list.get(4));
+        list.set(2, 99);
+        System.out.println("set(2,99): " + list);
+        list.removeAt(2);
+        list.remove((Integer) 4);
+        System.out.println("removeAt(2), remove(4): " + list);     // [1, 2, 5]
+        System.out.println("removeFirst(): " + list.removeFirst() + ", removeLast(): " + list.removeLast() + " -> " + list);
+
+        list.addLast(10);
+        list.addLast(20);
+        list.addLast(30);           // [2, 10, 20, 30]
+        System.out.print("Iterator backward: ");
+        Iterator<Integer> it = list.descendingIterator();
+        while (it.hasNext()) System.out.print(it.next() + " ");
+        System.out.println("\nindexOf(20): " + list.indexOf(20));
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+    }
+
+    // ===== BENCHMARK: ediciones por posición en una lista grande =====
+    static void benchmark(int n) {
+        DoublyLinkedListDemo.DoublyLinkedList<Integer> dll = new DoublyLinkedListDemo.DoublyLinkedList<>();
+        UnrolledLinkedListDemo.UnrolledLinkedList<Integer> ull = new UnrolledLinkedListDemo.UnrolledLinkedList<>();
+        IndexableSkipList<Integer> skip = new IndexableSkipList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) skip.addLast(i);
+        long fillMs = (System.nanoTime() - t0) / 1_000_000;
+        for (int i = 0; i < n; i++) { dll.addLast(i); ull.addLast(i); }
+
+        Random rnd = new Random(5);
+        int slowOps = 1_000, fastOps = 200_000;
+        long sink = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < slowOps; i++) { // "mover" una canción: quitar en una posición, insertar en otra
+            Integer v = dll.removeAt(rnd.nextInt(n));
+            dll.add(rnd.nextInt(n), v);
+            sink += dll.get(rnd.nextInt(n));
+        }
+        double dllUs = (System.nanoTime() - t0) / 1e3 / slowOps;
+        t0 = System.nanoTime();
+        for (int i = 0; i < slowOps * 10; i++) {
+            Integer v = ull.removeAt(rnd.nextInt(n));
+            ull.add(rnd.nextInt(n), v);
+            sink += ull.get(rnd.nextInt(n));
+        }
+        double ullUs = (System.nanoTime() - t0) / 1e3 / (slowOps * 10);
+        for (int rep = 0; rep < 2; rep++) { // 1.ª vuelta: calentamiento JIT
+            t0 = System.nanoTime();
+            for (int i = 0; i < fastOps; i++) {
+                Integer v = skip.removeAt(rnd.nextInt(n));
+                skip.add(rnd.nextInt(n), v);
+                sink += skip.get(rnd.nextInt(n));
+            }
+        }
+        double skipUs = (System.nanoTime() - t0) / 1e3 / fastOps;
+        System.out.printf("%n[n=%,d] removeAt + add(i) + get(i) por edición: clásica %.1f µs | unrolled %.1f µs | skip list %.2f µs%n",
+                n, dllUs, ullUs, skipUs);
+        System.out.printf("addLast x %,d en la skip list: %d ms%n", n, fillMs);
+        if (sink == 42) System.out.println(); // evita que el JIT elimine los bucles
+    }
+}
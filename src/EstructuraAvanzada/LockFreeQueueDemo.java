@@ -0,0 +1,254 @@
+package EstructuraAvanzada;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cola FIFO sin candados (lock-free) de Michael y Scott, para muchos productores y
+ * muchos consumidores. Misma API que QueueLinkedDemo.Queue:
+ *  - Siempre hay un nodo "dummy" al frente: head apunta a él y el primer elemento real
+ *    es head.next. enqueue y dequeue trabajan en extremos distintos y no se bloquean.
+ *  - enqueue enlaza el nodo con un CAS sobre tail.next y luego intenta adelantar tail;
+ *    si otro hilo encuentra tail rezagado, lo adelanta él (ayuda mutua).
+ *  - dequeue adelanta head con un CAS; el nodo del elemento pasa a ser el nuevo dummy.
+ *  - Los CAS se hacen con VarHandles sobre campos volatile (sin AtomicReference por nodo).
+ *
+ * size() es aproximado: se lleva en un LongAdder que se actualiza justo después de cada
+ * enqueue/dequeue, así que con otros hilos operando puede ir un poco por detrás (nunca
+ * se devuelve negativo). isEmpty() sí refleja el estado de la cola en ese instante.
+ * No admite elementos null (dequeue/poll usan null para "vacía").
+ */
+public class LockFreeQueueDemo {
+
+    // ===== Implementación de la Cola =====
+    static class LockFreeQueue<T> implements Iterable<T> {
+
+        // ----- Nodo -----
+        private static final class Node<E> {
+            E item;              // se publica con el CAS que enlaza el nodo
+            volatile Node<E> next;
+            Node(E item) { this.item = item; }
+        }
+
+        // ----- VarHandles -----
+        private static final VarHandle HEAD, TAIL, NEXT;
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                HEAD = l.findVarHandle(LockFreeQueue.class, "head", Node.class);
+                TAIL = l.findVarHandle(LockFreeQueue.class, "tail", Node.class);
+                NEXT = l.findVarHandle(Node.class, "next", Node.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // ----- Campos -----
+        private volatile Node<T> head; // dummy del frente
+        private volatile Node<T> tail; // último nodo (o uno anterior, si va rezagado)
+        private final LongAdder size = new LongAdder();
+
+        public LockFreeQueue() {
+            Node<T> dummy = new Node<>(null);
+            head = tail = dummy;
+        }
+
+        // ----- Operaciones principales -----
+
+        // Enqueue -> inserta al final
+        public void enqueue(T value) {
+            Objects.requireNonNull(value, "null elements are not supported");
+            Node<T> node = new Node<>(value);
+            while (true) {
+                Node<T> t = tail;
+                Node<T> next = t.next;
+                if (t != tail) continue;                            // tail cambió: releer
+                if (next == null) {
+                    if (NEXT.compareAndSet(t, null, node)) {        // enlazar al final
+                        TAIL.compareAndSet(this, t, node);          // si falla, otro hilo ya lo adelantó
+                        size.increment();
+                        return;
+                    }
+                } else {
+                    TAIL.compareAndSet(this, t, next);              // ayudar a adelantar tail
+                }
+            }
+        }
+
+        // Dequeue -> quita del frente
+        public T dequeue() {
+            T v = poll();
+            if (v == null) throw new NoSuchElementException("Queue is empty");
+            return v;
+        }
+
+        // Como dequeue, pero devuelve null si la cola está vacía (útil en bucles de consumidores)
+        public T poll() {
+            while (true) {
+                Node<T> h = head;
+                Node<T> t = tail;
+                Node<T> first = h.next;
+                if (h != head) continue;
+                if (first == null) return null;                     // vacía
+                if (h == t) {
+                    TAIL.compareAndSet(this, t, first);             // tail rezagado: ayudar
+                    continue;
+                }
+                T v = first.item;
+                if (HEAD.compareAndSet(this, h, first)) {
+                    first.item = null; // 'first' es el nuevo dummy; help GC
+                    size.decrement();
+                    return v;
+                }
+            }
+        }
+
+        // Peek -> devuelve el primero sin quitarlo
+        public T peek() {
+            while (true) {
+                Node<T> h = head;
+                Node<T> first = h.next;
+                if (first == null) throw new NoSuchElementException("Queue is empty");
+                T v = first.item;
+                if (h == head && v != null) return v; // si head no se movió, v seguía siendo el primero
+            }
+        }
+
+        public boolean isEmpty() { return head.next == null; }
+
+        // Aproximado con hilos concurrentes (ver el comentario de la clase)
+        public int size() { return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum())); }
+
+        public void clear() {
+            while (poll() != null) { }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[front -> ");
+            boolean first = true;
+            for (T v : this) {
+                if (!first) sb.append(", ");
+                sb.append(v);
+                first = false;
+            }
+            sb.append(" <- rear]");
+            return sb.toString();
+        }
+
+        // Iterador débilmente consistente: nunca falla, puede no ver cambios hechos durante el recorrido
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private Node<T> cursor;
+                private T nextItem; // se lee al avanzar: un dequeue posterior no lo invalida
+                { advance(head); }
+                private void advance(Node<T> from) {
+                    Node<T> x = from.next;
+                    T v = null;
+                    while (x != null && (v = x.item) == null) x = x.next; // saltar nodos ya consumidos
+                    cursor = x;
+                    nextItem = v;
+                }
+                @Override public boolean hasNext() { return cursor != null; }
+                @Override public T next() {
+                    if (cursor == null) throw new NoSuchElementException();
+                    T val = nextItem;
+                    advance(cursor);
+                    return val;
+                }
+            };
+        }
+    }
+
+    // ===== Demo en main =====
+    public static void main(String[] args) throws Exception {
+        LockFreeQueue<Integer> queue = new LockFreeQueue<>();
+
+        System.out.println("=== ENQUEUE ===");
+        queue.enqueue(10);
+        queue.enqueue(20);
+        queue.enqueue(30);
+        System.out.println(queue); // [front -> 10, 20, 30 <- rear]
+        System.out.println("size = " + queue.size());
+        System.out.println("peek() -> " + queue.peek());       // 10
+        System.out.println("dequeue() -> " + queue.dequeue()); // 10
+        System.out.println(queue);                             // [front -> 20, 30 <- rear]
+
+        // Productores y consumidores a la vez: cada valor debe salir exactamente una vez
+        int producers = 4, perProducer = 200_000;
+        LockFreeQueue<Integer> shared = new LockFreeQueue<>();
+        LongAdder consumedSum = new LongAdder();
+        LongAdder consumed = new LongAdder();
+        long total = (long) producers * perProducer;
+        run(2 * producers, (th, i) -> {
+            if (th < producers) {
+                if (i < perProducer) shared.enqueue(th * perProducer + i);
+            } else if (i < perProducer) {
+                Integer v;
+                while ((v = shared.poll()) == null) Thread.onSpinWait();
+                consumedSum.add(v);
+                consumed.increment();
+            }
+        }, perProducer);
+        System.out.println("\nconsumidos: " + consumed.sum() + " de " + total
+                + ", suma " + (consumedSum.sum() == total * (total - 1) / 2 ? "correcta" : "INCORRECTA")
+                + ", vacía=" + shared.isEmpty() + ", size=" + shared.size());
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 32);
+    }
+
+    // ===== BENCHMARK: pares enqueue + dequeue con 1..maxThreads hilos =====
+    static void benchmark(int maxThreads) throws Exception {
+        int pairs = 1_000_000;
+        System.out.printf("%n[Benchmark %,d pares enqueue/dequeue por ronda, %d núcleos]%n",
+                pairs, Runtime.getRuntime().availableProcessors());
+        for (int t = 0; t <= maxThreads; t = Math.max(1, t * 2)) { // t = 0: ronda de calentamiento JIT, no se imprime
+            int per = pairs / Math.max(t, 1);
+            QueueLinkedDemo.Queue<Integer> plain = new QueueLinkedDemo.Queue<>();
+            int threads = Math.max(t, 1);
+            long locked = run(threads, (th, i) -> {
+                synchronized (plain) { plain.enqueue(i); }
+                synchronized (plain) { plain.dequeue(); }
+            }, per);
+            ConcurrentLinkedQueue<Integer> clq = new ConcurrentLinkedQueue<>();
+            long jdk = run(threads, (th, i) -> { clq.offer(i); clq.poll(); }, per);
+            LockFreeQueue<Integer> lf = new LockFreeQueue<>();
+            long ms = run(threads, (th, i) -> { lf.enqueue(i); lf.poll(); }, per);
+            if (t == 0) continue;
+            System.out.printf("hilos=%2d  candado: %5d ms | ConcurrentLinkedQueue: %5d ms | Michael-Scott: %5d ms%n",
+                    t, locked, jdk, ms);
+        }
+    }
+
+    interface Op { void run(int thread, int i); }
+
+    /** Lanza 'threads' hilos que ejecutan 'per' operaciones cada uno; devuelve ms. */
+    private static long run(int threads, Op op, int per) throws Exception {
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int th = t;
+            fs.add(exec.submit(() -> {
+                start.await();
+                for (int i = 0; i < per; i++) op.run(th, i);
+                return null;
+            }));
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : fs) f.get();
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        exec.shutdown();
+        return ms;
+    }
+}
@@ -0,0 +1,393 @@
+package EstructuraAvanzada;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Lista doblemente enlazada "desenrollada" (unrolled linked list).
+ * Misma API que DoublyLinkedListDemo.DoublyLinkedList, pero cada nodo guarda hasta
+ * NODE_CAPACITY (64) elementos en un arreglo:
+ *  - Recorrer la lista salta de nodo cada 64 elementos en vez de en cada uno.
+ *  - Memoria: ~4 bytes por elemento (una referencia) más un nodo cada 64, frente a un
+ *    nodo de 24 bytes por elemento en la versión clásica.
+ *  - Insertar en un nodo lleno lo parte en dos mitades; si al borrar un nodo baja de
+ *    1/4 de capacidad se fusiona con un vecino (o le pide elementos si juntos no caben).
+ *
+ * Complejidades: addFirst/addLast O(1) amortizado (desplaza dentro de un nodo);
+ * get/set/add(index)/removeAt O(n / 64 + 64).
+ */
+public class UnrolledLinkedListDemo {
+
+    static class UnrolledLinkedList<T> implements Iterable<T> {
+
+        static final int NODE_CAPACITY = 64;
+        private static final int MIN_FILL = NODE_CAPACITY / 4;
+
+        // ----- Nodo -----
+        private static final class Node {
+            final Object[] items = new Object[NODE_CAPACITY];
+            int count;
+            Node prev;
+            Node next;
+        }
+
+        // ----- Campos -----
+        private Node head;
+        private Node tail;
+        private int size;
+        private int modCount; // para iteradores fail-fast simples
+        private int foundOffset; // posición dentro del nodo devuelto por nodeAt
+
+        // ----- Constructores -----
+        public UnrolledLinkedList() {}
+
+        // ----- Métricas -----
+        public int size() { return size; }
+        public boolean isEmpty() { return size == 0; }
+        public int nodeCount() {
+            int c = 0;
+            for (Node x = head; x != null; x = x.next) c++;
+            return c;
+        }
+
+        // ----- Helpers internos -----
+        private void checkElementIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+        private void checkPositionIndex(int index) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+        // Nodo que contiene el elemento 'index' (deja su posición en foundOffset).
+        // Salta nodos enteros desde head o desde tail, según la mitad.
+        private Node nodeAt(int index) {
+            if (index < (size >> 1)) {
+                Node x = head;
+                while (index >= x.count) { index -= x.count; x = x.next; }
+                foundOffset = index;
+                return x;
+            } else {
+                Node x = tail;
+                int start = size - x.count; // índice global del primer elemento de x
+                while (index < start) { x = x.prev; start -= x.count; }
+                foundOffset = index - start;
+                return x;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E> E item(Node x, int i) { return (E) x.items[i]; }
+
+        // ----- Inserciones -----
+        public void addFirst(T item) {
+            if (head == null || head.count == NODE_CAPACITY) linkBefore(head);
+            insertInto(head, 0, item);
+        }
+
+        public void addLast(T item) {
+            if (tail == null || tail.count == NODE_CAPACITY) linkBefore(null);
+            insertInto(tail, tail.count, item);
+        }
+
+        // Inserta en una posición [0..size]; index==size es equivalente a addLast
+        public void add(int index, T item) {
+            checkPositionIndex(index);
+            if (index == size) { addLast(item); return; }
+            if (index == 0)    { addFirst(item); return; }
+            Node x = nodeAt(index);
+            int off = foundOffset;
+            if (x.count == NODE_CAPACITY) {
+                // partir: la mitad superior pasa a un nodo nuevo detrás de x
+                Node right = linkBefore(x.next);
+                int half = NODE_CAPACITY / 2;
+                System.arraycopy(x.items, half, right.items, 0, NODE_CAPACITY - half);
+                java.util.Arrays.fill(x.items, half, NODE_CAPACITY, null);
+                right.count = NODE_CAPACITY - half;
+                x.count = half;
+                if (off > half) { x = right; off -= half; }
+            }
+            insertInto(x, off, item);
+        }
+
+        private void insertInto(Node x, int off, T item) {
+            System.arraycopy(x.items, off, x.items, off + 1, x.count - off);
+            x.items[off] = item;
+            x.count++;
+            size++; modCount++;
+        }
+
+        // Enlaza un nodo vacío antes de 'succ' (null = al final) y lo devuelve
+        private Node linkBefore(Node succ) {
+            Node n = new Node();
+            Node pred = (succ == null) ? tail : succ.prev;
+            n.prev = pred;
+            n.next = succ;
+            if (pred == null) head = n; else pred.next = n;
+            if (succ == null) tail = n; else succ.prev = n;
+            return n;
+        }
+
+        // ----- Acceso / actualización -----
+        public T get(int index) {
+            checkElementIndex(index);
+            Node x = nodeAt(index);
+            return item(x, foundOffset);
+        }
+
+        public T set(int index, T newValue) {
+            checkElementIndex(index);
+            Node x = nodeAt(index);
+            T old = item(x, foundOffset);
+            x.items[foundOffset] = newValue;
+            return old;
+        }
+
+        // ----- Eliminaciones -----
+        public T removeFirst() {
+            if (head == null) throw new NoSuchElementException("List is empty");
+            return removeFrom(head, 0);
+        }
+
+        public T removeLast() {
+            if (tail == null) throw new NoSuchElementException("List is empty");
+            return removeFrom(tail, tail.count - 1);
+        }
+
+        public T removeAt(int index) {
+            checkElementIndex(index);
+            Node x = nodeAt(index);
+            return removeFrom(x, foundOffset);
+        }
+
+        // Elimina la primera aparición de 'o' (== null-safe equals)
+        public boolean remove(Object o) {
+            for (Node x = head; x != null; x = x.next) {
+                for (int i = 0; i < x.count; i++) {
+                    if (o == null ? x.items[i] == null : o.equals(x.items[i])) {
+                        removeFrom(x, i);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private T removeFrom(Node x, int off) {
+            T v = item(x, off);
+            System.arraycopy(x.items, off + 1, x.items, off, x.count - off - 1);
+            x.items[--x.count] = null; // help GC
+            size--; modCount++;
+            if (x.count == 0) unlink(x);
+            else if (x.count < MIN_FILL) rebalance(x);
+            return v;
+        }
+
+        // Nodo por debajo de 1/4: se fusiona con un vecino si juntos caben en 3/4 de nodo;
+        // si no, se reparten los elementos a partes iguales entre los dos.
+        private void rebalance(Node x) {
+            Node left, right;
+            if (x.next != null) { left = x; right = x.next; }
+            else if (x.prev != null) { left = x.prev; right = x; }
+            else return;
+            int total = left.count + right.count;
+            if (total <= NODE_CAPACITY * 3 / 4) {
+                System.arraycopy(right.items, 0, left.items, left.count, right.count);
+                left.count = total;
+                unlink(right);
+            } else {
+                int target = total / 2;
+                if (left.count < target) { // pasar los primeros de right al final de left
+                    int k = target - left.count;
+                    System.arraycopy(right.items, 0, left.items, left.count, k);
+                    System.arraycopy(right.items, k, right.items, 0, right.count - k);
+                    java.util.Arrays.fill(right.items, right.count - k, right.count, null);
+                    left.count += k; right.count -= k;
+                } else {                   // pasar los últimos de left al principio de right
+                    int k = left.count - target;
+                    System.arraycopy(right.items, 0, right.items, k, right.count);
+                    System.arraycopy(left.items, target, right.items, 0, k);
+                    java.util.Arrays.fill(left.items, target, left.count, null);
+                    left.count -= k; right.count += k;
+                }
+            }
+        }
+
+        private void unlink(Node x) {
+            Node p = x.prev, n = x.next;
+            if (p == null) head = n; else p.next = n;
+            if (n == null) tail = p; else n.prev = p;
+            java.util.Arrays.fill(x.items, 0, x.count, null);
+            x.prev = x.next = null;
+        }
+
+        public void clear() {
+            // Desvincular todos los nodos para ayudar al GC
+            Node x = head;
+            while (x != null) {
+                Node next = x.next;
+                java.util.Arrays.fill(x.items, 0, x.count, null);
+                x.prev = x.next = null;
+                x = next;
+            }
+            head = tail = null;
+            size = 0; modCount++;
+        }
+
+        // ----- Búsquedas -----
+        public int indexOf(Object o) {
+            int base = 0;
+            for (Node x = head; x != null; base += x.count, x = x.next) {
+                for (int i = 0; i < x.count; i++) {
+                    if (o == null ? x.items[i] == null : o.equals(x.items[i])) return base + i;
+                }
+            }
+            return -1;
+        }
+        public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+        // ----- Iteradores -----
+        @Override
+        public Iterator<T> iterator() {
+            return new ULLIterator(true);
+        }
+
+        public Iterator<T> descendingIterator() {
+            return new ULLIterator(false);
+        }
+
+        private final class ULLIterator implements Iterator<T> {
+            private Node node;   // nodo del siguiente elemento
+            private int offset;  // posición del siguiente elemento en node
+            private final int expectedModCount;
+            private final boolean forward;
+
+            ULLIterator(boolean forward) {
+                this.forward = forward;
+                this.expectedModCount = modCount;
+                this.node = forward ? head : tail;
+                this.offset = forward ? 0 : (tail == null ? -1 : tail.count - 1);
+            }
+
+            private void checkForComodification() {
+                if (expectedModCount != modCount) {
+                    throw new IllegalStateException("List modified during iteration");
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public T next() {
+                checkForComodification();
+                if (node == null) throw new NoSuchElementException();
+                T v = item(node, offset);
+                if (forward) {
+                    if (++offset == node.count) { node = node.next; offset = 0; }
+                } else {
+                    if (--offset < 0) { node = node.prev; offset = node == null ? -1 : node.count - 1; }
+                }
+                return v;
+            }
+        }
+
+        // ----- toString -----
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[");
+            for (Node x = head; x != null; x = x.next) {
+                for (int i = 0; i < x.count; i++) {
+                    if (sb.length() > 1) sb.append(", ");
+                    sb.append(x.items[i]);
+                }
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+
+    // ===== Demo rápida en main =====
+    public static void main(String[] args) {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>();
+
+        list.addFirst(2);           // [2]
+        list.addFirst(1);           // [1, 2]
+        list.addLast(3);            // [1, 2, 3]
+        list.add(3, 5);             // [1, 2, 3, 5]
+        list.add(3, 4);             // [1, 2, 3, 4, 5]
+        System.out.println("Inicial: " + list);
+        System.out.println("get(0)=" + list.get(0) + ", get(4)=" + list.get(4));
+        list.set(2, 99);
+        System.out.println("set(2,99): " + list);
+        list.removeAt(2);
+        list.remove((Integer) 4);
+        System.out.println("removeAt(2), remove(4): " + list);     // [1, 2, 5]
+
+        for (int i = 0; i < 200; i++) list.add(list.size() / 2, i); // fuerza divisiones
+        System.out.println("tras 200 inserciones en medio: size=" + list.size() + ", nodos=" + list.nodeCount());
+        while (list.size() > 10) list.removeAt(list.size() / 3);   // fuerza fusiones
+        System.out.println("tras borrar hasta 10: " + list + ", nodos=" + list.nodeCount());
+
+        System.out.print("Iterator backward: ");
+        Iterator<Integer> it = list.descendingIterator();
+        while (it.hasNext()) System.out.print(it.next() + " ");
+        System.out.println();
+
+        benchmark(args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000);
+    }
+
+    // ===== BENCHMARK: iteración, acceso por índice y memoria frente a DoublyLinkedList =====
+    static void benchmark(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) values[i] = i; // mismos objetos en ambas listas: solo se mide la estructura
+
+        long heap0 = usedHeap();
+        DoublyLinkedListDemo.DoublyLinkedList<Integer> dll = new DoublyLinkedListDemo.DoublyLinkedList<>();
+        for (int i = 0; i < n; i++) dll.addLast(values[i]);
+        long dllBytes = usedHeap() - heap0;
+
+        heap0 = usedHeap();
+        UnrolledLinkedList<Integer> ull = new UnrolledLinkedList<>();
+        for (int i = 0; i < n; i++) ull.addLast(values[i]);
+        long ullBytes = usedHeap() - heap0;
+
+        Random rnd = new Random(1);
+        int[] idx = new int[2_000];
+        for (int i = 0; i < idx.length; i++) idx[i] = rnd.nextInt(n);
+        long dllIter = 0, ullIter = 0, dllGet = 0, ullGet = 0, sink = 0;
+        for (int rep = 0; rep < 3; rep++) { // vueltas previas: calentamiento JIT
+            long t0 = System.nanoTime();
+            for (Integer v : dll) sink += v;
+            dllIter = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (Integer v : ull) sink += v;
+            ullIter = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int i : idx) sink += dll.get(i);
+            dllGet = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int i : idx) sink += ull.get(i);
+            ullGet = System.nanoTime() - t0;
+        }
+        System.out.printf("%n[n=%,d] iteración: clásica %.1f ms | unrolled %.1f ms (%.1fx)%n",
+                n, dllIter / 1e6, ullIter / 1e6, (double) dllIter / ullIter);
+        System.out.printf("%,d get(i) aleatorios: clásica %.1f ms | unrolled %.1f ms (%.1fx)%n",
+                idx.length, dllGet / 1e6, ullGet / 1e6, (double) dllGet / ullGet);
+        System.out.printf("memoria de la estructura: clásica ~%,d KB | unrolled ~%,d KB (%.1fx)%n",
+                dllBytes >> 10, ullBytes >> 10, (double) dllBytes / ullBytes);
+        if (sink == 42) System.out.println(); // evita que el JIT elimine los bucles
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}